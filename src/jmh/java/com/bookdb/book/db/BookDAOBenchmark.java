@@ -0,0 +1,76 @@
+package com.bookdb.book.db;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading {@code books.book} the way {@link BookDAO#streamAllBooks} does, from embedded H2 in PostgreSQL mode.
+ * {@code readColumns} reads the same values without building books, the difference is {@link BookDAO#mapRow}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookDAOBenchmark {
+
+    private static final String SQL = "SELECT id, name, author, lastReaded FROM \"books\".\"book\" ORDER BY id";
+
+    @Param("1000")
+    private int rows;
+
+    private Connection connection;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:bookdao;MODE=PostgreSQL");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS \"books\"");
+            statement.execute("CREATE TABLE \"books\".\"book\" (id INT PRIMARY KEY, name VARCHAR(100), " +
+                    "author VARCHAR(100), lastReaded INT)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO \"books\".\"book\" (id, name, author, lastReaded) VALUES (?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                insert.setInt(1, i);
+                insert.setString(2, "Name " + i);
+                insert.setString(3, "Author " + i % 50);
+                insert.setInt(4, i % 10 + 1);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void mapRows(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(BookDAO.mapRow(rs));
+            }
+        }
+    }
+
+    @Benchmark
+    public void readColumns(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getInt(1));
+                blackhole.consume(rs.getString(2));
+                blackhole.consume(rs.getString(3));
+                blackhole.consume(rs.getInt(4));
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bookdb.book.db;
+
+import com.bookdb.book.entity.Book;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The /v1 store under contention. {@code readMostly} runs lookups next to a writer replacing books,
+ * {@code churn} creates and deletes while others read; each group shares one store.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class InMemoryBookStoreBenchmark {
+
+    @Param("10000")
+    private int books;
+
+    private InMemoryBookStore store;
+
+    @Setup
+    public void setup() {
+        store = new InMemoryBookStore();
+        for (int i = 0; i < books; i++) {
+            store.create(new Book(0, "Name " + i, "Author " + i % 50, i % 10 + 1));
+        }
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(3)
+    public Book readMostlyGet() {
+        return store.get(randomId());
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public Book readMostlyReplace() {
+        int id = randomId();
+        return store.replace(id, new Book(id, "Replaced", "Author", 1));
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(2)
+    public Book churnCreateAndRemove() {
+        Book book = store.create(new Book(0, "Created", "Author", 1));
+        return store.remove(book.getId());
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(2)
+    public Book churnGet() {
+        return store.get(randomId());
+    }
+
+    @Benchmark
+    @Group("findAll")
+    public List<Book> findAll() {
+        return store.findAll();
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, books + 1);
+    }
+}
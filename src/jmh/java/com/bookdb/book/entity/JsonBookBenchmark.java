@@ -0,0 +1,77 @@
+package com.bookdb.book.entity;
+
+import com.bookdb.book.entity.conventer.ObjectNodeMutabilityPlan;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a {@link JsonBook} costs per row: parsing the JSONB document on load, the accessors over the parsed tree,
+ * the snapshot Hibernate takes for dirty checking and serializing at flush. {@code extraFields} widens the
+ * document beyond the three fields the API exposes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonBookBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Param({"0", "100"})
+    private int extraFields;
+
+    private final ObjectNodeMutabilityPlan mutabilityPlan = new ObjectNodeMutabilityPlan();
+    private String document;
+    private JsonBook book;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("name", "Farcuad");
+        node.put("author", "Henry");
+        node.put("lastReaded", new BigDecimal("4.5"));
+        for (int i = 0; i < extraFields; i++) {
+            node.put("field" + i, "value " + i);
+        }
+        document = MAPPER.writeValueAsString(node);
+        book = JsonBook.builder().id(1L).book(node).build();
+    }
+
+    @Benchmark
+    public ObjectNode parseDocument() throws JsonProcessingException {
+        return (ObjectNode) MAPPER.readTree(document);
+    }
+
+    @Benchmark
+    public void getters(Blackhole blackhole) {
+        blackhole.consume(book.getName());
+        blackhole.consume(book.getAuthor());
+        blackhole.consume(book.getlastReaded());
+    }
+
+    @Benchmark
+    public JsonBook setters() {
+        book.setName("Farcuad");
+        book.setAuthor("Henry");
+        book.setlastReaded(BigDecimal.TEN);
+        return book;
+    }
+
+    @Benchmark
+    public ObjectNode snapshot() {
+        return mutabilityPlan.deepCopy(book.getBook());
+    }
+
+    @Benchmark
+    public String serializeDocument() throws JsonProcessingException {
+        return MAPPER.writeValueAsString(book.getBook());
+    }
+}
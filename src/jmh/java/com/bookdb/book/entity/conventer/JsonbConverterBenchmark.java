@@ -0,0 +1,54 @@
+package com.bookdb.book.entity.conventer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON-B round-trips through {@link JsonbConverter}, for the same documents as
+ * {@code JsonBookBenchmark} so the two mappings can be compared.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonbConverterBenchmark {
+
+    @Param({"0", "100"})
+    private int extraFields;
+
+    private final JsonbConverter converter = new JsonbConverter();
+    private Map<String, Object> attribute;
+    private String column;
+
+    @Setup
+    public void setup() {
+        attribute = new LinkedHashMap<>();
+        attribute.put("name", "Farcuad");
+        attribute.put("author", "Henry");
+        attribute.put("lastReaded", 4.5);
+        for (int i = 0; i < extraFields; i++) {
+            attribute.put("field" + i, "value " + i);
+        }
+        column = converter.convertToDatabaseColumn(attribute);
+    }
+
+    @Benchmark
+    public String toDatabaseColumn() {
+        return converter.convertToDatabaseColumn(attribute);
+    }
+
+    @Benchmark
+    public Object toEntityAttribute() {
+        return converter.convertToEntityAttribute(column);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return converter.convertToEntityAttribute(converter.convertToDatabaseColumn(attribute));
+    }
+}
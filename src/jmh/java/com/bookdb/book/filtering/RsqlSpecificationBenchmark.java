@@ -0,0 +1,81 @@
+package com.bookdb.book.filtering;
+
+import com.bookdb.book.entity.JsonBook;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning a /v4 {@code filter} into a specification, with and without {@link RsqlSpecificationCache}, and
+ * building its predicate with {@link CustomRsqlVisitor}. Hibernate runs on embedded H2; nothing is executed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RsqlSpecificationBenchmark {
+
+    // Same mapping as JsonService
+    private static final Map<String, String> PROPERTIES = Map.of(
+            "id", "id",
+            "name", "book.name",
+            "author", "book.author",
+            "lastReaded", "book.lastReaded");
+
+    @Param({
+            "author==Henry",
+            "author=in=(Henry,Nobody);lastReaded=ge=3;name=like=Far*",
+            "id=gt=10,name=like=*cat*"
+    })
+    private String filter;
+
+    private SessionFactory sessionFactory;
+    private RsqlSpecificationCache uncached;
+    private RsqlSpecificationCache cached;
+    private Specification<JsonBook> specification;
+
+    @Setup
+    public void setup() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(JsonBook.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:rsql;MODE=PostgreSQL")
+                .setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect")
+                .buildSessionFactory();
+        uncached = new RsqlSpecificationCache(0);
+        cached = new RsqlSpecificationCache(500);
+        specification = cached.getSpecification(JsonBook.class, filter, PROPERTIES);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Specification<JsonBook> compile() {
+        return uncached.getSpecification(JsonBook.class, filter, PROPERTIES);
+    }
+
+    @Benchmark
+    public Specification<JsonBook> cachedLookup() {
+        return cached.getSpecification(JsonBook.class, filter, PROPERTIES);
+    }
+
+    @Benchmark
+    public Predicate toPredicate() {
+        CriteriaBuilder criteriaBuilder = sessionFactory.getCriteriaBuilder();
+        CriteriaQuery<JsonBook> query = criteriaBuilder.createQuery(JsonBook.class);
+        Root<JsonBook> root = query.from(JsonBook.class);
+        return specification.toPredicate(root, query, criteriaBuilder);
+    }
+}
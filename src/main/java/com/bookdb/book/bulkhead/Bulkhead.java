@@ -0,0 +1,72 @@
+package com.bookdb.book.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps how many requests use one backend at a time. With handlers on virtual threads nothing else bounds
+ * concurrency, so without it a slow backend would soak up every request instead of just the ones that need it.
+ * <p>
+ * Waiting requests are served in arrival order for up to {@code maxWait}, then rejected. Queue time, rejections,
+ * active and waiting requests are published as {@code bookdb.bulkhead.*}, tagged with the bulkhead name.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final Semaphore permits;
+    private final Duration maxWait;
+
+    private final Timer waitTimer;
+    private final Counter rejections;
+
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWait = maxWait;
+
+        waitTimer = Timer.builder("bookdb.bulkhead.wait")
+                .tag("name", name)
+                .description("Time requests waited for a permit")
+                .register(meterRegistry);
+        rejections = Counter.builder("bookdb.bulkhead.rejections")
+                .tag("name", name)
+                .description("Requests rejected because no permit became free in time")
+                .register(meterRegistry);
+        Gauge.builder("bookdb.bulkhead.active", permits, semaphore -> maxConcurrent - semaphore.availablePermits())
+                .tag("name", name).register(meterRegistry);
+        Gauge.builder("bookdb.bulkhead.waiting", permits, Semaphore::getQueueLength)
+                .tag("name", name).register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Duration maxWait() {
+        return maxWait;
+    }
+
+    /**
+     * @return {@code false} if no permit became free within {@code maxWait}; otherwise the caller must
+     * {@link #release()} it
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        long start = System.nanoTime();
+        boolean acquired = permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejections.increment();
+        }
+        return acquired;
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
@@ -0,0 +1,51 @@
+package com.bookdb.book.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One bulkhead per backend, sized to its connection pool. Requests are assigned by path: image endpoints whose
+ * bytes live in S3 take an S3 permit, every other database-backed endpoint a Postgres permit. {@code /v1} is in
+ * memory and not limited.
+ */
+@Configuration
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private static final String V4_IMAGES = "/v4/api/books/*/image";
+    private static final String V3_IMAGES = "/v3/api/books/*/image";
+
+    private final Bulkhead postgres;
+    private final Bulkhead s3;
+    private final String imageStorage;
+
+    public BulkheadConfig(@Value("${bookdb.bulkhead.postgres.max-concurrent:10}") int postgresMaxConcurrent,
+                          @Value("${bookdb.bulkhead.postgres.max-wait:2s}") Duration postgresMaxWait,
+                          @Value("${bookdb.bulkhead.s3.max-concurrent:100}") int s3MaxConcurrent,
+                          @Value("${bookdb.bulkhead.s3.max-wait:2s}") Duration s3MaxWait,
+                          @Value("${bookdb.image.storage:bytea}") String imageStorage,
+                          MeterRegistry meterRegistry) {
+        this.postgres = new Bulkhead("postgres", postgresMaxConcurrent, postgresMaxWait, meterRegistry);
+        this.s3 = new Bulkhead("s3", s3MaxConcurrent, s3MaxWait, meterRegistry);
+        this.imageStorage = imageStorage;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        List<String> s3Paths = new ArrayList<>(List.of(V4_IMAGES));
+        if ("s3".equals(imageStorage)) {
+            s3Paths.add(V3_IMAGES);
+        }
+        registry.addInterceptor(new BulkheadInterceptor(s3))
+                .addPathPatterns(s3Paths);
+        registry.addInterceptor(new BulkheadInterceptor(postgres))
+                .addPathPatterns("/v2/**", "/v3/**", "/v4/**")
+                .excludePathPatterns(s3Paths);
+    }
+}
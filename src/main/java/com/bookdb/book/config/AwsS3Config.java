@@ -5,10 +5,15 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.Executors;
 
 @Configuration
 @ConfigurationProperties(prefix = "aws.s3")
@@ -17,11 +22,26 @@ public class AwsS3Config {
     private String accessKeyId;
     private String secretAccessKey;
     private String url;
+    private boolean pathStyleAccess;
+    private int maxConnections = 100;
+    private Duration connectionAcquireTimeout = Duration.ofSeconds(5);
 
     public void setUrl(String url) {
         this.url = url;
     }
 
+    public void setPathStyleAccess(boolean pathStyleAccess) {
+        this.pathStyleAccess = pathStyleAccess;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public void setConnectionAcquireTimeout(Duration connectionAcquireTimeout) {
+        this.connectionAcquireTimeout = connectionAcquireTimeout;
+    }
+
     public void setRegion(String region) {
         this.region = region;
     }
@@ -41,6 +61,33 @@ public class AwsS3Config {
                 .region(Region.of(region))
                 .credentialsProvider(StaticCredentialsProvider.create(
                         AwsBasicCredentials.create(accessKeyId, secretAccessKey))) // Fake credentials
+                .forcePathStyle(pathStyleAccess)
+                .build();
+    }
+
+    /**
+     * Non-blocking client for the /v4 image endpoints. Requests wait on the Netty event loop instead of a servlet
+     * thread; {@code maxConnections} caps concurrent S3 requests, further ones queue for a pooled connection.
+     * <p>
+     * The returned futures complete on virtual threads instead of the SDK's small completion pool, so callbacks may
+     * block: they write image metadata over JDBC and read whole images from the response stream.
+     */
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        return S3AsyncClient.builder()
+                .endpointOverride(URI.create(url))
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(accessKeyId, secretAccessKey)))
+                .forcePathStyle(pathStyleAccess)
+                .asyncConfiguration(async -> async.advancedOption(
+                        SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR,
+                        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("s3-completion-", 0).factory())))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConnections)
+                        .connectionAcquisitionTimeout(connectionAcquireTimeout)
+                        .connectionTimeout(Duration.ofSeconds(2))
+                        .tcpKeepAlive(true))
                 .build();
     }
 }
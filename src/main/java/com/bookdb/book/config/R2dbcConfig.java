@@ -0,0 +1,66 @@
+package com.bookdb.book.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * R2DBC access for the reactive /v5 endpoints, against the same database as the JDBC pool.
+ * <p>
+ * The connection pool is deliberately not exposed as a {@code ConnectionFactory} bean: Boot stops
+ * auto-configuring the JDBC {@code DataSource} as soon as one exists. For the same reason
+ * {@code R2dbcAutoConfiguration} is excluded in application.properties.
+ */
+@Configuration
+public class R2dbcConfig {
+
+    @Value("${bookdb.r2dbc.url:r2dbc:postgresql://localhost:5432/catssrv}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${bookdb.r2dbc.pool.initial-size:2}")
+    private int initialSize;
+
+    @Value("${bookdb.r2dbc.pool.max-size:20}")
+    private int maxSize;
+
+    @Value("${bookdb.r2dbc.pool.max-acquire-time:3s}")
+    private Duration maxAcquireTime;
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("bookdb-r2dbc-pool")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @PreDestroy
+    void close() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -1,26 +1,94 @@
 package com.bookdb.book.controller;
 
+import com.bookdb.book.db.BookCacheEvictor;
 import com.bookdb.book.db.BookDAO;
 import com.bookdb.book.entity.Book;
+import com.bookdb.book.entity.BookBatchResult;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
 @RestController
 public class DBController {
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final int EXPORT_FLUSH_EVERY = 100;
+
     private final List<Book> bookList = new ArrayList<>();
     @Autowired
     private ObjectMapper objectMapper;
-    private final BookDAO bookDAO = new BookDAO();
+    @Autowired
+    private BookDAO bookDAO;
+    @Autowired
+    private BookCacheEvictor bookCacheEvictor;
+
+    @Value("${bookdb.v2.copy-threshold:10000}")
+    private int copyThreshold;
 
     @GetMapping("/v2/api/books")
     public List<Book> getBook() {
         return bookDAO.getAllBooks();
     }
 
+    /**
+     * Streams the whole table straight to the response, either as NDJSON (default) or as one JSON array.
+     */
+    @GetMapping("/v2/api/books/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        boolean jsonArray = switch (format) {
+            case "ndjson" -> false;
+            case "json" -> true;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format: " + format);
+        };
+
+        ObjectWriter bookWriter = objectMapper.writerFor(Book.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.createGenerator(outputStream);
+            int[] written = {0};
+            try {
+                if (jsonArray) {
+                    generator.writeStartArray();
+                }
+                bookDAO.streamAllBooks(EXPORT_FETCH_SIZE, book -> {
+                    bookWriter.writeValue(generator, book);
+                    if (!jsonArray) {
+                        generator.writeRaw('\n');
+                    }
+                    // Flush the first row right away so clients see bytes before the cursor is drained.
+                    if (++written[0] == 1 || written[0] % EXPORT_FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                });
+                if (jsonArray) {
+                    generator.writeEndArray();
+                }
+            } catch (SQLException e) {
+                throw new IOException("Book export failed", e);
+            } finally {
+                generator.flush();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/v2/api/books/{id}")
     public Book getBook(@PathVariable int id) {
         return bookDAO.getBookById(id);
@@ -29,17 +97,48 @@ public class DBController {
     @PostMapping("/v2/api/books")
     public Book createBook(@RequestBody Book book) {
         bookDAO.createBooks(book);
+        bookCacheEvictor.evictAll();
         return book;
     }
 
     @PutMapping("/v2/api/books/{id}")
     public Book updateBook(@RequestBody Book book, @PathVariable int id) {
-        bookDAO.updateBook(book);
+        bookCacheEvictor.writeLocked(book.getId(), () -> bookDAO.updateBook(book));
         return book;
     }
 
+    /**
+     * Inserts many books at once. {@code mode=batch} uses JDBC batching, {@code mode=copy} streams the rows with
+     * Postgres COPY, and {@code auto} switches to COPY once the payload reaches {@code bookdb.v2.copy-threshold}.
+     */
+    @PostMapping("/v2/api/books/batch")
+    public ResponseEntity<List<BookBatchResult>> createBooks(
+            @RequestBody List<Book> books,
+            @RequestParam(value = "mode", defaultValue = "auto") String mode) {
+        boolean useCopy = switch (mode) {
+            case "copy" -> true;
+            case "batch" -> false;
+            case "auto" -> books.size() >= copyThreshold;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown batch mode: " + mode);
+        };
+        List<BookBatchResult> results = useCopy ? bookDAO.copyBooks(books) : bookDAO.createBooks(books);
+        bookCacheEvictor.evictAll();
+        return new ResponseEntity<>(results, hasFailures(results) ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.CREATED);
+    }
+
+    @PutMapping("/v2/api/books/batch")
+    public ResponseEntity<List<BookBatchResult>> updateBooks(@RequestBody List<Book> books) {
+        List<BookBatchResult> results = bookDAO.updateBooks(books);
+        bookCacheEvictor.evictAll();
+        return new ResponseEntity<>(results, hasFailures(results) ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK);
+    }
+
     @DeleteMapping("/v2/api/books/{id}")
     public void deleteBook(@PathVariable int id) {
-        bookDAO.deleteBook(id);
+        bookCacheEvictor.writeLocked(id, () -> bookDAO.deleteBook(id));
+    }
+
+    private static boolean hasFailures(List<BookBatchResult> results) {
+        return results.stream().anyMatch(result -> result.getStatus() == BookBatchResult.Status.FAILED);
     }
 }
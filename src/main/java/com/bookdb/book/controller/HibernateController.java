@@ -1,18 +1,25 @@
 package com.bookdb.book.controller;
 
+import com.bookdb.book.controller.pagination.CountStrategy;
+import com.bookdb.book.controller.pagination.KeysetSlice;
+import com.bookdb.book.controller.pagination.PageResult;
 import com.bookdb.book.controller.service.hibernate.HibernateInterfaceService;
 import com.bookdb.book.entity.HibernateBook;
 import com.bookdb.book.repositories.HibernateRepository;
 import com.bookdb.book.repositories.ImageRepository;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.services.s3.S3Client;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/v3/api/books")
 public class HibernateController {
@@ -29,15 +36,42 @@ public class HibernateController {
     @Autowired
     private S3Client s3Client;
 
+    /**
+     * Offset-based listing. {@code filter} takes an RSQL expression (see rsqlLogic), e.g.
+     * {@code author==Henry;lastReaded=gt=3}. {@code count} picks how the total is obtained: {@code exact}
+     * (default), {@code cached}, {@code approximate} or {@code none} (the body is then a slice without totals).
+     */
     @GetMapping
-    public Page<HibernateBook> getAllHibernateBooks(
+    public ResponseEntity<Slice<HibernateBook>> getAllHibernateBooks(
             @RequestParam(value = "lastReaded", required = false) Double lastReaded,
             @RequestParam(value = "author", required = false) String author,
+            @RequestParam(value = "filter", required = false) String filter,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "5") int size) {
-        return hibernateInterfaceService.getAllHibernateBooks(lastReaded, author, page, size);
+            @RequestParam(value = "size", defaultValue = "5") int size,
+            @RequestParam(value = "count", defaultValue = "exact") String count) {
+        PageResult<HibernateBook> result = hibernateInterfaceService.getAllHibernateBooks(
+                lastReaded, author, filter, page, size, CountStrategy.fromParam(count));
+        return ResponseEntity.ok()
+                .header(CountStrategy.HEADER, result.countStrategy().value())
+                .body(result.slice());
     }
 
+    /**
+     * Cursor-based variant of the listing, selected by the {@code after} parameter. Pass an empty {@code after}
+     * for the first slice and then the returned {@code nextCursor} until it is null.
+     */
+    @GetMapping(params = "after")
+    public KeysetSlice<HibernateBook> getHibernateBooksAfter(
+            @RequestParam(value = "lastReaded", required = false) Double lastReaded,
+            @RequestParam(value = "author", required = false) String author,
+            @RequestParam(value = "filter", required = false) String filter,
+            @RequestParam("after") String after,
+            @RequestParam(value = "sort", defaultValue = "id") String sort,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction,
+            @RequestParam(value = "size", defaultValue = "5") int size) {
+        return hibernateInterfaceService.getHibernateBooksAfter(lastReaded, author, filter, after, sort, direction,
+                size);
+    }
 
     @GetMapping("/{id}")
     public ResponseEntity<HibernateBook> getHibernateBookById(@PathVariable Long id) {
@@ -51,6 +85,15 @@ public class HibernateController {
         return hibernateInterfaceService.createHibernateBook(book, bindingResult);
     }
 
+    /**
+     * Creates many books in one transaction. All books are validated first; if any is invalid nothing is written
+     * and the errors are returned keyed by {@code [index].field}.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<Object> createHibernateBooks(@RequestBody List<HibernateBook> books) {
+        return hibernateInterfaceService.createHibernateBooks(books);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Object> updateHibernateBook(
             @PathVariable Long id,
@@ -72,8 +115,12 @@ public class HibernateController {
     }
 
     @GetMapping("/{id}/image")
-    public ResponseEntity<byte[]> getImageBook(@PathVariable Long id) {
-        return hibernateInterfaceService.getImageBook(id);
+    public ResponseEntity<Resource> getImageBook(@PathVariable Long id,
+                                                 @RequestParam(value = "w", required = false) Integer width,
+                                                 @RequestParam(value = "h", required = false) Integer height,
+                                                 @RequestParam(required = false) String format,
+                                                 WebRequest request) {
+        return hibernateInterfaceService.getImageBook(id, width, height, format, request);
     }
 }
 
@@ -1,45 +1,50 @@
 package com.bookdb.book.controller;
 
+import com.bookdb.book.db.InMemoryBookStore;
 import com.bookdb.book.entity.Book;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 public class InMemoryController {
-    private final List<Book> bookList = new ArrayList<>();
+
     @Autowired
-    private ObjectMapper objectMapper;
+    private InMemoryBookStore bookStore;
 
     @GetMapping("/v1/api/books")
     public List<Book> getBooks() {
-        return bookList;
+        return bookStore.findAll();
     }
 
     @GetMapping("/v1/api/books/{id}")
-    public Book getBook(@PathVariable int id) {
-        return bookList.get(id - 1);
+    public ResponseEntity<Book> getBook(@PathVariable int id) {
+        return Optional.ofNullable(bookStore.get(id))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping("/v1/api/books")
     public Book createBook(@RequestBody Book book) {
-        book.setId(bookList.size() + 1);
-        bookList.add(book);
-        return book;
+        return bookStore.create(book);
     }
 
     @PutMapping("/v1/api/books/{id}")
-    public Book updateBook(@RequestBody Book book, @PathVariable int id) {
-        bookList.set(id - 1, book);
-        return book;
+    public ResponseEntity<Book> updateBook(@RequestBody Book book, @PathVariable int id) {
+        if (bookStore.replace(id, book) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(book);
     }
 
     @DeleteMapping("/v1/api/books/{id}")
-    public void deleteBook(@PathVariable int id) {
-
-        bookList.remove(id - 1);
+    public ResponseEntity<Void> deleteBook(@PathVariable int id) {
+        if (bookStore.remove(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().build();
     }
 }
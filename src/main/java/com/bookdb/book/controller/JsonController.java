@@ -1,5 +1,7 @@
 package com.bookdb.book.controller;
 
+import com.bookdb.book.controller.pagination.CountStrategy;
+import com.bookdb.book.controller.pagination.PageResult;
 import com.bookdb.book.controller.service.hibernate.JsonServiceInterface;
 import com.bookdb.book.entity.BookDTO;
 import com.bookdb.book.entity.JsonBook;
@@ -9,14 +11,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/v4/api/books")
@@ -36,17 +40,33 @@ public class JsonController {
     @Autowired
     private JsonRepository jsonRepository;
 
+    /**
+     * {@code filter} takes an RSQL expression over {@code id}, {@code name}, {@code author} and
+     * {@code lastReaded}; {@code fields} picks the same names plus {@code imageUrl}, e.g. {@code fields=id,name}.
+     * The body only carries the page content, so no total is computed unless asked for with {@code count}; it is
+     * then returned in the {@code X-Total-Count} header.
+     */
     @GetMapping
-    public ResponseEntity<List<JsonBook>> getAllJsonBooks(
+    public ResponseEntity<List<BookDTO>> getAllJsonBooks(
+            @RequestParam(value = "filter", required = false) String filter,
+            @RequestParam(value = "fields", required = false) String fields,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "5") int size) {
-        Page<JsonBook> result = jsonServiceInterface.getAllJsonBooks(page, size);
-        return ResponseEntity.ok(result.getContent());
+            @RequestParam(value = "size", defaultValue = "5") int size,
+            @RequestParam(value = "count", defaultValue = "none") String count) {
+        PageResult<BookDTO> result = jsonServiceInterface.getAllJsonBooks(filter, fields, page, size,
+                CountStrategy.fromParam(count));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(CountStrategy.HEADER, result.countStrategy().value());
+        if (result.totalElements() != null) {
+            response.header("X-Total-Count", String.valueOf(result.totalElements()));
+        }
+        return response.body(result.slice().getContent());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<JsonBook> getHibernateBookById(@PathVariable Long id) {
-        return jsonServiceInterface.getJsonBookById(id);
+    public ResponseEntity<BookDTO> getHibernateBookById(@PathVariable Long id,
+                                                        @RequestParam(value = "fields", required = false) String fields) {
+        return jsonServiceInterface.getJsonBookById(id, fields);
     }
 
     @PostMapping
@@ -65,13 +85,18 @@ public class JsonController {
     }
 
     @PostMapping("/{id}/image")
-    public ResponseEntity<String> uploadS3Image(@PathVariable Long id, @RequestParam("image") MultipartFile imageFile) {
+    public CompletableFuture<ResponseEntity<String>> uploadS3Image(@PathVariable Long id, @RequestParam("image") MultipartFile imageFile) {
         return jsonServiceInterface.uploadS3Image(id, imageFile);
     }
 
     @GetMapping("/{id}/image")
-    public ResponseEntity<Object> getImageBook(@PathVariable Long id) {
-        return jsonServiceInterface.getImageBook(id);
+    public CompletableFuture<ResponseEntity<Object>> getImageBook(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                               @RequestParam(value = "w", required = false) Integer width,
+                                               @RequestParam(value = "h", required = false) Integer height,
+                                               @RequestParam(required = false) String format,
+                                               WebRequest request) {
+        return jsonServiceInterface.getImageBook(id, range, width, height, format, request);
     }
 
     @GetMapping("/by-age")
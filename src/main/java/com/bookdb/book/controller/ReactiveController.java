@@ -0,0 +1,55 @@
+package com.bookdb.book.controller;
+
+import com.bookdb.book.controller.service.reactive.ReactiveServiceInterface;
+import com.bookdb.book.entity.HibernateBook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The /v3 book API on R2DBC. Handlers return without blocking and Spring MVC writes the results once they arrive;
+ * a listing only holds a database connection while it fetches a chunk, not while a slow client reads it. The HTTP
+ * side is the same Tomcat as for /v3, see the README on comparing the two.
+ */
+@RestController
+@RequestMapping("/v5/api/books")
+public class ReactiveController {
+
+    @Autowired
+    private ReactiveServiceInterface reactiveServiceInterface;
+
+    /**
+     * Streams books as newline-delimited JSON in id order, written as the client reads them. {@code name} and
+     * {@code author} are prefix matches; {@code after} resumes after the last id a client has seen.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<HibernateBook> getAllBooks(@RequestParam(required = false) String name,
+                                           @RequestParam(required = false) String author,
+                                           @RequestParam(defaultValue = "0") long after,
+                                           @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be at least 1");
+        }
+        return reactiveServiceInterface.getAllBooks(name, author, after, limit);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<HibernateBook>> getBookById(@PathVariable Long id) {
+        return reactiveServiceInterface.getBookById(id);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Object>> createBook(@RequestBody HibernateBook book) {
+        return reactiveServiceInterface.createBook(book);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Object>> updateBook(@PathVariable Long id, @RequestBody HibernateBook book) {
+        return reactiveServiceInterface.updateBook(id, book);
+    }
+}
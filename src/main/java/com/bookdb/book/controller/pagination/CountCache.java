@@ -0,0 +1,57 @@
+package com.bookdb.book.controller.pagination;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Exact total counts cached per entity and filter. Every write to an entity bumps its generation, which makes
+ * all cached counts for it stale at once; a count computed while a write happened is never stored.
+ */
+@Component
+public class CountCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Value("${bookdb.pagination.count-cache-ttl:30s}")
+    private Duration ttl;
+
+    public long getOrCompute(Class<?> entityType, String filterKey, LongSupplier counter) {
+        String key = entityType.getName() + '|' + filterKey;
+        long generation = generation(entityType).get();
+        long now = System.nanoTime();
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.generation == generation && now - entry.createdAt < ttl.toNanos()) {
+            return entry.count;
+        }
+
+        long count = counter.getAsLong();
+        if (generation(entityType).get() == generation) {
+            if (entries.size() >= MAX_ENTRIES) {
+                entries.clear();
+            }
+            entries.put(key, new Entry(count, generation, now));
+        }
+        return count;
+    }
+
+    public void invalidate(Class<?> entityType) {
+        generation(entityType).incrementAndGet();
+    }
+
+    private AtomicLong generation(Class<?> entityType) {
+        return generations.computeIfAbsent(entityType, type -> new AtomicLong());
+    }
+
+    private record Entry(long count, long generation, long createdAt) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.bookdb.book.controller.pagination;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * How the total element count of a paginated listing is obtained. Selected per request with {@code count=}
+ * and echoed back in the {@value #HEADER} response header.
+ */
+public enum CountStrategy {
+    /** {@code COUNT(*)} on every request. */
+    EXACT("exact"),
+    /** Exact count, reused per filter until it expires or the table is written to. */
+    CACHED("cached"),
+    /** Planner estimate from {@code pg_class.reltuples}; only for unfiltered listings. */
+    APPROXIMATE("approximate"),
+    /** No count at all, the response is a slice that only knows whether a next page exists. */
+    NONE("none");
+
+    public static final String HEADER = "X-Total-Count-Strategy";
+
+    private final String value;
+
+    CountStrategy(String value) {
+        this.value = value;
+    }
+
+    public String value() {
+        return value;
+    }
+
+    public static CountStrategy fromParam(String param) {
+        for (CountStrategy strategy : values()) {
+            if (strategy.value.equalsIgnoreCase(param)) {
+                return strategy;
+            }
+        }
+        if ("approx".equalsIgnoreCase(param)) {
+            return APPROXIMATE;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown count strategy: " + param);
+    }
+}
@@ -1,36 +1,181 @@
 package com.bookdb.book.controller.pagination;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Table;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.function.LongSupplier;
 
-
+@Component
 public class HibernatePagination {
 
     private EntityManager entityManager;
 
-    public HibernatePagination(EntityManager entityManager) {
+    private CountCache countCache;
+
+    public HibernatePagination(EntityManager entityManager, CountCache countCache) {
         this.entityManager = entityManager;
+        this.countCache = countCache;
     }
 
     public <T> PageImpl<T> getPaginationResult(String jpql, int page, int size, Class<T> resultType) {
+        return (PageImpl<T>) getPaginationResult(jpql, page, size, resultType, CountStrategy.EXACT).slice();
+    }
+
+    public <T> PageResult<T> getPaginationResult(String jpql, int page, int size, Class<T> resultType,
+                                                 CountStrategy countStrategy) {
         int offset = page * size;
 
         TypedQuery<T> query = entityManager.createQuery(jpql, resultType);
+        query.setHint(HibernateHints.HINT_CACHEABLE, isCacheable(resultType));
         query.setFirstResult(offset);
-        query.setMaxResults(size);
+        query.setMaxResults(countStrategy == CountStrategy.NONE ? size + 1 : size);
 
         List<T> results = query.getResultList();
+        Pageable pageable = PageRequest.of(page, size);
 
-        TypedQuery<Long> countQuery = entityManager.createQuery(
-                "SELECT COUNT(*) FROM " + resultType.getSimpleName(), Long.class);
-        Long totalElements = countQuery.getSingleResult();
+        LongSupplier exactCount = () -> entityManager.createQuery(
+                "SELECT COUNT(*) FROM " + resultType.getSimpleName(), Long.class).getSingleResult();
+        return toPageResult(results, pageable, resultType, jpql, countStrategy, exactCount, true);
+    }
 
-        Pageable pageable = PageRequest.of(page, size);
-        return new PageImpl<>(results, pageable, totalElements);
+    /**
+     * Loads one page of {@code type} matching {@code specification} and counts the total according to
+     * {@code countStrategy}. {@code filterKey} must uniquely describe the specification (empty when unfiltered),
+     * it keys cached counts and decides whether an approximate count is possible.
+     */
+    public <T> PageResult<T> findPage(Class<T> type, Specification<T> specification, String filterKey,
+                                      Pageable pageable, CountStrategy countStrategy) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(type);
+        Root<T> root = query.from(type);
+        applySpecification(specification, root, query, criteriaBuilder);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        List<T> results = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_CACHEABLE, isCacheable(type))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(countStrategy == CountStrategy.NONE ? pageable.getPageSize() + 1 : pageable.getPageSize())
+                .getResultList();
+
+        return toPageResult(results, pageable, type, filterKey, countStrategy,
+                exactCount(type, specification), filterKey.isEmpty());
+    }
+
+    /**
+     * Like {@link #findPage(Class, Specification, String, Pageable, CountStrategy)}, but only reads what
+     * {@code projection} selects. Counts are shared with the entity listing of the same filter.
+     */
+    public <T, R> PageResult<R> findPage(Class<T> type, Specification<T> specification, String filterKey,
+                                         Pageable pageable, CountStrategy countStrategy,
+                                         TupleProjection<T, R> projection) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<T> root = query.from(type);
+        query.multiselect(projection.select(root, criteriaBuilder));
+        applySpecification(specification, root, query, criteriaBuilder);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+
+        List<R> results = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(countStrategy == CountStrategy.NONE ? pageable.getPageSize() + 1 : pageable.getPageSize())
+                .getResultStream()
+                .map(projection::map)
+                .toList();
+
+        return toPageResult(results, pageable, type, filterKey, countStrategy,
+                exactCount(type, specification), filterKey.isEmpty());
+    }
+
+    private <T> LongSupplier exactCount(Class<T> type, Specification<T> specification) {
+        return () -> {
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Long> countQuery = criteriaBuilder.createQuery(Long.class);
+            Root<T> countRoot = countQuery.from(type);
+            countQuery.select(criteriaBuilder.count(countRoot));
+            applySpecification(specification, countRoot, countQuery, criteriaBuilder);
+            return entityManager.createQuery(countQuery)
+                    .setHint(HibernateHints.HINT_CACHEABLE, isCacheable(type))
+                    .getSingleResult();
+        };
+    }
+
+    private <R> PageResult<R> toPageResult(List<R> results, Pageable pageable, Class<?> type, String filterKey,
+                                           CountStrategy countStrategy, LongSupplier exactCount,
+                                           boolean unfiltered) {
+        if (countStrategy == CountStrategy.NONE) {
+            boolean hasNext = results.size() > pageable.getPageSize();
+            List<R> content = hasNext ? results.subList(0, pageable.getPageSize()) : results;
+            Slice<R> slice = new SliceImpl<>(content, pageable, hasNext);
+            return new PageResult<>(slice, CountStrategy.NONE);
+        }
+
+        CountStrategy applied = countStrategy;
+        if (applied == CountStrategy.APPROXIMATE) {
+            Long estimate = unfiltered ? estimateRowCount(type) : null;
+            if (estimate != null) {
+                // The estimate can lag behind, never report fewer rows than this page already proves exist.
+                long total = Math.max(estimate, pageable.getOffset() + results.size());
+                return new PageResult<>(new PageImpl<>(results, pageable, total), CountStrategy.APPROXIMATE);
+            }
+            applied = CountStrategy.CACHED;
+        }
+
+        LongSupplier count = applied == CountStrategy.CACHED
+                ? () -> countCache.getOrCompute(type, filterKey, exactCount)
+                : exactCount;
+        return new PageResult<>(PageableExecutionUtils.getPage(results, pageable, count), applied);
+    }
+
+    /**
+     * Queries over entities in the second-level cache also go to the query cache. Hibernate invalidates cached
+     * results whenever it writes to the table; JDBC writes go through {@link com.bookdb.book.db.BookCacheEvictor}.
+     */
+    private static boolean isCacheable(Class<?> type) {
+        return type.isAnnotationPresent(Cacheable.class);
+    }
+
+    /**
+     * Row estimate maintained by VACUUM/ANALYZE; {@code null} if the table has never been analyzed.
+     */
+    private Long estimateRowCount(Class<?> type) {
+        Table table = type.getAnnotation(Table.class);
+        if (table == null) {
+            return null;
+        }
+        String tableName = table.schema().isEmpty() ? table.name() : table.schema() + "." + table.name();
+        Number estimate = (Number) entityManager
+                .createNativeQuery("SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST(:table AS regclass)")
+                .setParameter("table", tableName)
+                .getSingleResult();
+        return estimate.longValue() < 0 ? null : estimate.longValue();
+    }
+
+    private static <T> void applySpecification(Specification<T> specification, Root<T> root, CriteriaQuery<?> query,
+                                               CriteriaBuilder criteriaBuilder) {
+        if (specification == null) {
+            return;
+        }
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package com.bookdb.book.controller.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque position of the last row a client has seen: the sort key, direction, the row's value for that key and
+ * its id as a tie-breaker. Encoded as URL-safe base64 so it can travel in the {@code after} query parameter.
+ */
+public record KeysetCursor(String sort, boolean ascending, Object value, long id) {
+
+    private static final String SEPARATOR = "\n";
+
+    public String encode() {
+        String raw = sort + SEPARATOR + (ascending ? "asc" : "desc") + SEPARATOR + id + SEPARATOR
+                + (value == null ? "" : "v" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param valueType type of the sort key, used to restore the value
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static KeysetCursor decode(String token, Class<?> valueType) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split(SEPARATOR, 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        Object value = parts[3].isEmpty() ? null : parseValue(parts[3].substring(1), valueType);
+        return new KeysetCursor(parts[0], "asc".equals(parts[1]), value, Long.parseLong(parts[2]));
+    }
+
+    private static Object parseValue(String value, Class<?> valueType) {
+        if (valueType == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        if (valueType == Long.class) {
+            return Long.valueOf(value);
+        }
+        return value;
+    }
+}
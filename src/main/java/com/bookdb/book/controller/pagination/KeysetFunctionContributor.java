@@ -0,0 +1,24 @@
+package com.bookdb.book.controller.pagination;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the row-value comparisons of {@link KeysetRanges}; HQL and criteria have no syntax for them and the
+ * equivalent OR chain can't be used as an index condition. Picked up through META-INF/services.
+ */
+public class KeysetFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<Boolean> booleanType = functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                .resolve(StandardBasicTypes.BOOLEAN);
+
+        functionContributions.getFunctionRegistry().registerPattern(
+                KeysetRanges.ROW_AFTER_FUNCTION, "((?1, ?2) > (?3, ?4))", booleanType);
+        functionContributions.getFunctionRegistry().registerPattern(
+                KeysetRanges.ROW_BEFORE_FUNCTION, "((?1, ?2) < (?3, ?4))", booleanType);
+    }
+}
@@ -0,0 +1,70 @@
+package com.bookdb.book.controller.pagination;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Seek predicates for keyset pagination in {@code (sort key, id)} order. The rows after a cursor are selected with a
+ * row-value comparison, {@code (key, id) > (value, cursor id)}, which Postgres turns into the index condition of the
+ * {@code (key, id)} indexes (Initdb9.sql), so a deep page reads no more rows than the first one. NULL keys can't
+ * take part in that comparison; Postgres sorts them last ascending and first descending, so they are paged as a
+ * range of their own, ordered by id alone.
+ */
+public final class KeysetRanges {
+
+    /**
+     * {@code keyset_row_after(key, id, value, cursorId)} renders {@code (key, id) > (value, cursorId)}, see
+     * {@link KeysetFunctionContributor}.
+     */
+    public static final String ROW_AFTER_FUNCTION = "keyset_row_after";
+
+    /**
+     * {@code keyset_row_before(key, id, value, cursorId)} renders {@code (key, id) < (value, cursorId)}.
+     */
+    public static final String ROW_BEFORE_FUNCTION = "keyset_row_before";
+
+    private KeysetRanges() {
+    }
+
+    /**
+     * The ranges that follow {@code cursor}, in sort order. A page queries them one after another with its
+     * {@code ORDER BY} until it is full, e.g. the NULL keys of an ascending sort are only read once the non-null
+     * keys are exhausted. Without a cursor the whole ordering is a single range.
+     */
+    public static <T> List<Specification<T>> after(KeysetCursor cursor) {
+        if (cursor == null) {
+            return List.of((root, query, criteriaBuilder) -> null);
+        }
+        boolean ascending = cursor.ascending();
+        if ("id".equals(cursor.sort())) {
+            return List.of((root, query, criteriaBuilder) -> idBeyond(criteriaBuilder, root.get("id"), cursor));
+        }
+
+        Specification<T> nullKeys = (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.isNull(root.get(cursor.sort())),
+                idBeyond(criteriaBuilder, root.get("id"), cursor));
+        if (cursor.value() == null) {
+            return ascending
+                    ? List.of(nullKeys)
+                    : List.of(nullKeys, (root, query, criteriaBuilder) -> criteriaBuilder.isNotNull(root.get(cursor.sort())));
+        }
+
+        Specification<T> rowBeyond = (root, query, criteriaBuilder) -> criteriaBuilder.isTrue(criteriaBuilder.function(
+                ascending ? ROW_AFTER_FUNCTION : ROW_BEFORE_FUNCTION, Boolean.class,
+                root.get(cursor.sort()), root.get("id"),
+                criteriaBuilder.literal(cursor.value()), criteriaBuilder.literal(cursor.id())));
+        return ascending
+                ? List.of(rowBeyond, (root, query, criteriaBuilder) -> criteriaBuilder.isNull(root.get(cursor.sort())))
+                : List.of(rowBeyond);
+    }
+
+    private static Predicate idBeyond(CriteriaBuilder criteriaBuilder, Path<Long> id, KeysetCursor cursor) {
+        return cursor.ascending()
+                ? criteriaBuilder.greaterThan(id, cursor.id())
+                : criteriaBuilder.lessThan(id, cursor.id());
+    }
+}
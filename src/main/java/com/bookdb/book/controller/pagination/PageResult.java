@@ -0,0 +1,15 @@
+package com.bookdb.book.controller.pagination;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+/**
+ * A page of results together with the count strategy that was actually applied, which can differ from the
+ * requested one (e.g. an approximate count requested for a filtered listing).
+ */
+public record PageResult<T>(Slice<T> slice, CountStrategy countStrategy) {
+
+    public Long totalElements() {
+        return slice instanceof Page<T> page ? page.getTotalElements() : null;
+    }
+}
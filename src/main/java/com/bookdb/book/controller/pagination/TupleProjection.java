@@ -0,0 +1,19 @@
+package com.bookdb.book.controller.pagination;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.List;
+
+/**
+ * Selects a subset of columns or SQL expressions of {@code T} and maps each result row to {@code R}, so a page
+ * can be read without loading the entities.
+ */
+public interface TupleProjection<T, R> {
+
+    List<Selection<?>> select(Root<T> root, CriteriaBuilder criteriaBuilder);
+
+    R map(Tuple tuple);
+}
@@ -1,11 +1,17 @@
 package com.bookdb.book.controller.service.hibernate;
 
+import com.bookdb.book.controller.pagination.CountStrategy;
+import com.bookdb.book.controller.pagination.KeysetSlice;
+import com.bookdb.book.controller.pagination.PageResult;
 import com.bookdb.book.entity.HibernateBook;
-import org.springframework.data.domain.Page;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 public interface HibernateInterfaceService {
 
     ResponseEntity<HibernateBook> getHibernateBookById(Long id);
@@ -14,12 +20,18 @@ public interface HibernateInterfaceService {
 
     ResponseEntity<Object> createHibernateBook(HibernateBook hibernateBook, BindingResult bindingResult);
 
+    ResponseEntity<Object> createHibernateBooks(List<HibernateBook> hibernateBooks);
+
     ResponseEntity<Object> createImageBook(Long id, MultipartFile imageFile);
 
-    Page<HibernateBook> getAllHibernateBooks(Double lastReaded, String author, int page, int size);
+    PageResult<HibernateBook> getAllHibernateBooks(Double lastReaded, String author, String filter, int page,
+                                                   int size, CountStrategy countStrategy);
+
+    KeysetSlice<HibernateBook> getHibernateBooksAfter(Double lastReaded, String author, String filter, String after,
+                                                      String sort, String direction, int size);
 
     ResponseEntity<Object> updateHibernateBook(Long id, HibernateBook hibernateBook, BindingResult bindingResult);
 
-    ResponseEntity<byte[]> getImageBook(Long id);
+    ResponseEntity<Resource> getImageBook(Long id, Integer width, Integer height, String format, WebRequest request);
 
 }
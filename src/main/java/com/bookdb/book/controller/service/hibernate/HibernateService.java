@@ -1,42 +1,143 @@
 package com.bookdb.book.controller.service.hibernate;
 
 import com.bookdb.book.controller.HibernateController;
+import com.bookdb.book.controller.pagination.CountCache;
+import com.bookdb.book.controller.pagination.CountStrategy;
+import com.bookdb.book.controller.pagination.HibernatePagination;
+import com.bookdb.book.controller.pagination.KeysetCursor;
+import com.bookdb.book.controller.pagination.KeysetRanges;
+import com.bookdb.book.controller.pagination.KeysetSlice;
+import com.bookdb.book.controller.pagination.PageResult;
+import com.bookdb.book.db.BookCacheEvictor;
 import com.bookdb.book.entity.HibernateBook;
 import com.bookdb.book.entity.ImageBook;
+import com.bookdb.book.entity.ImageVariantBook;
+import com.bookdb.book.filtering.RsqlSpecificationCache;
+import com.bookdb.book.image.BlobStore;
+import com.bookdb.book.image.CachedImage;
+import com.bookdb.book.image.ImageCache;
+import com.bookdb.book.image.ImageValidators;
+import com.bookdb.book.image.ImageVariant;
+import com.bookdb.book.image.ImageVariants;
+import com.bookdb.book.image.StoredImage;
 import com.bookdb.book.repositories.HibernateRepository;
 import com.bookdb.book.repositories.ImageRepository;
+import com.bookdb.book.repositories.ImageVariantRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class HibernateService implements HibernateInterfaceService {
 
     private static final Logger logger = LoggerFactory.getLogger(HibernateController.class);
 
+    private static final Map<String, Class<?>> KEYSET_SORT_KEYS = Map.of(
+            "id", Long.class,
+            "name", String.class,
+            "author", String.class,
+            "lastReaded", Integer.class);
+
+    private static final Map<String, String> RSQL_PROPERTIES = Map.of(
+            "id", "id",
+            "name", "name",
+            "author", "author",
+            "lastReaded", "lastReaded");
+
+    private static final String IMAGE_CACHE_PREFIX = "v3/";
+
+    private static final String VARIANT_STORAGE_PREFIX = "v3/variants/";
+
+    // Images uploaded before content hashes were recorded.
+    private static final String UNHASHED_SOURCE = "unhashed";
+
     @Autowired
     private HibernateRepository hibernateRepository;
 
     @Autowired
     private ImageRepository imageRepository;
 
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private ImageValidators imageValidators;
+
+    @Autowired
+    private ImageVariants imageVariants;
+
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    // Absent when bookdb.image.storage is bytea: image bytes then stay in books.image.
+    @Autowired(required = false)
+    private BlobStore blobStore;
+
+    @Autowired
+    private HibernatePagination hibernatePagination;
+
+    @Autowired
+    private CountCache countCache;
+
+    @Autowired
+    private BookCacheEvictor bookCacheEvictor;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Value("${bookdb.v3.bulk-max-size:10000}")
+    private int bulkMaxSize;
+
+    @Autowired
+    private RsqlSpecificationCache rsqlSpecificationCache;
+
     public Map<String, String> validateBindingResult(BindingResult bindingResult) {
         Map<String, String> errors = new HashMap<>();
         for (FieldError error : bindingResult.getFieldErrors()) {
@@ -62,10 +163,53 @@ public class HibernateService implements HibernateInterfaceService {
             return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
         }
 
+        // A null version marks the book as new, so save() persists it instead of merging into an existing row.
+        hibernateBook.setVersion(null);
         HibernateBook savedBook = hibernateRepository.save(hibernateBook);
+        countCache.invalidate(HibernateBook.class);
         return new ResponseEntity<>(savedBook, HttpStatus.CREATED);
     }
 
+    /**
+     * Persists through one session with JDBC batching: the session is flushed and cleared every
+     * {@code hibernate.jdbc.batch_size} books, so memory stays flat however many are sent. Bulk inserts bypass
+     * the second-level cache, they would only push hot books out of it.
+     */
+    @Transactional
+    public ResponseEntity<Object> createHibernateBooks(List<HibernateBook> hibernateBooks) {
+        if (hibernateBooks.size() > bulkMaxSize) {
+            return new ResponseEntity<>("At most " + bulkMaxSize + " books per request", HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        logger.info("Creating {} HibernateBooks in bulk", hibernateBooks.size());
+
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (int i = 0; i < hibernateBooks.size(); i++) {
+            for (ConstraintViolation<HibernateBook> violation : validator.validate(hibernateBooks.get(i))) {
+                errors.put("[" + i + "]." + violation.getPropertyPath(), violation.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            logger.warn("Validation errors occurred in {} fields of the bulk request.", errors.size());
+            return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+        }
+
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        for (int i = 0; i < hibernateBooks.size(); i++) {
+            HibernateBook book = hibernateBooks.get(i);
+            book.setId(0);
+            book.setVersion(null);
+            entityManager.persist(book);
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        countCache.invalidate(HibernateBook.class);
+        return new ResponseEntity<>(hibernateBooks, HttpStatus.CREATED);
+    }
+
     public ResponseEntity<Object> updateHibernateBook(Long id, HibernateBook hibernateBook, BindingResult bindingResult) {
         logger.info("Updating HibernateBook with ID: {}", id);
 
@@ -74,19 +218,19 @@ public class HibernateService implements HibernateInterfaceService {
             return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
         }
 
-        Optional<HibernateBook> existingBookOptional = hibernateRepository.findById(id);
-        if (existingBookOptional.isEmpty()) {
-            return new ResponseEntity<>("Book not found", HttpStatus.NOT_FOUND);
+        // One UPDATE ... RETURNING; the extra lookup only happens to tell a stale version from a missing book.
+        // The native statement bypasses the cache's soft lock, so the evictor takes it around the transaction.
+        Optional<HibernateBook> savedBook = bookCacheEvictor.writeLocked(id, () -> hibernateRepository.updateReturning(
+                id, hibernateBook.getName(), hibernateBook.getAuthor(), hibernateBook.getLastReaded(),
+                hibernateBook.getVersion()));
+        if (savedBook.isPresent()) {
+            return new ResponseEntity<>(savedBook.get(), HttpStatus.OK);
         }
-
-        HibernateBook existingBook = existingBookOptional.get();
-        existingBook.setName(hibernateBook.getName());
-        existingBook.setAuthor(hibernateBook.getAuthor());
-        existingBook.setLastReaded(hibernateBook.getLastReaded());
-        // Copy any other fields that need to be updated
-
-        HibernateBook savedBook = hibernateRepository.save(existingBook);
-        return new ResponseEntity<>(savedBook, HttpStatus.OK);
+        if (hibernateBook.getVersion() != null && hibernateRepository.existsById(id)) {
+            logger.warn("Stale version {} in update of HibernateBook with ID: {}", hibernateBook.getVersion(), id);
+            return new ResponseEntity<>("Book was modified concurrently", HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>("Book not found", HttpStatus.NOT_FOUND);
     }
 
     public ResponseEntity<String> deleteBook(Long id) {
@@ -95,13 +239,21 @@ public class HibernateService implements HibernateInterfaceService {
             return new ResponseEntity<>("Book ID cannot be null", HttpStatus.BAD_REQUEST);
         }
 
-        Optional<HibernateBook> bookToDelete = hibernateRepository.findById(id);
-        if (bookToDelete.isPresent()) {
-            hibernateRepository.deleteById(id);
-            return new ResponseEntity<>("Book deleted successfully", HttpStatus.OK);
-        } else {
+        // The blob key has to be read before the cascade removes books.image; BYTEA storage needs no lookup.
+        Optional<String> storageKey = blobStore == null
+                ? Optional.empty()
+                : imageRepository.findStoredImageById(id).map(StoredImage::getStorageKey);
+        if (hibernateRepository.deleteBookById(id) == 0) {
             return new ResponseEntity<>("Book not found", HttpStatus.NOT_FOUND);
         }
+        bookCacheEvictor.evict(id);
+        // books.image and books.image_variant rows are removed by ON DELETE CASCADE, blobs are not
+        imageCache.invalidate(IMAGE_CACHE_PREFIX + id);
+        if (blobStore != null) {
+            storageKey.ifPresent(this::deleteBlob);
+            deleteBlobVariants(id);
+        }
+        return new ResponseEntity<>("Book deleted successfully", HttpStatus.OK);
     }
 
     public ResponseEntity<Object> createImageBook(Long id, MultipartFile imageFile) {
@@ -110,12 +262,31 @@ public class HibernateService implements HibernateInterfaceService {
                 throw new IOException("Image can't be empty");
             }
 
-            ImageBook image = ImageBook.builder()
+            ImageBook.ImageBookBuilder image = ImageBook.builder()
                     .id(id)
-                    .imageData(imageFile.getBytes())
-                    .build();
+                    .contentType(imageFile.getContentType())
+                    .contentLength(imageFile.getSize())
+                    .uploadedAt(Instant.now());
+
+            if (blobStore == null) {
+                byte[] imageData = imageFile.getBytes();
+                image.imageData(imageData).contentHash(ImageValidators.sha256(imageData));
+            } else {
+                // The hash is computed while the upload streams into the store, nothing is buffered in heap.
+                String storageKey = IMAGE_CACHE_PREFIX + id;
+                MessageDigest digest = ImageValidators.sha256();
+                try (InputStream content = new DigestInputStream(imageFile.getInputStream(), digest)) {
+                    blobStore.write(storageKey, content, imageFile.getSize(), imageFile.getContentType());
+                }
+                image.storageKey(storageKey).contentHash(ImageValidators.hex(digest));
+            }
 
-            imageRepository.save(image);
+            imageRepository.save(image.build());
+            imageCache.invalidate(IMAGE_CACHE_PREFIX + id);
+            imageVariantRepository.deleteByImageId(id);
+            if (blobStore != null) {
+                deleteBlobVariants(id);
+            }
 
             return new ResponseEntity<>(HttpStatus.CREATED);
 
@@ -124,19 +295,293 @@ public class HibernateService implements HibernateInterfaceService {
         }
     }
 
-    public Page<HibernateBook> getAllHibernateBooks(Double lastReaded, String author, int page, int size) {
-        Specification<HibernateBook> specification = toSpecification(lastReaded, author);
+    public PageResult<HibernateBook> getAllHibernateBooks(Double lastReaded, String author, String filter, int page,
+                                                          int size, CountStrategy countStrategy) {
+        Specification<HibernateBook> specification = toSpecification(lastReaded, author, filter);
 
         PageRequest pageable = PageRequest.of(page, size);
 
-        return hibernateRepository.findAll(specification, pageable);
+        return hibernatePagination.findPage(HibernateBook.class, specification,
+                toFilterKey(lastReaded, author, filter), pageable, countStrategy);
+    }
+
+    /**
+     * Seek-based listing: instead of an OFFSET the query continues right after the row encoded in {@code after}
+     * (an empty token starts from the beginning) and no total count is computed, so every page costs the same.
+     */
+    public KeysetSlice<HibernateBook> getHibernateBooksAfter(Double lastReaded, String author, String filter,
+                                                             String after, String sort, String direction, int size) {
+        Class<?> sortType = KEYSET_SORT_KEYS.get(sort);
+        if (sortType == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort key: " + sort);
+        }
+        boolean ascending = !"desc".equalsIgnoreCase(direction);
+
+        Specification<HibernateBook> specification = toSpecification(lastReaded, author, filter);
+        KeysetCursor cursor = null;
+        if (after != null && !after.isEmpty()) {
+            try {
+                cursor = KeysetCursor.decode(after, sortType);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+            }
+            if (!cursor.sort().equals(sort) || cursor.ascending() != ascending) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor was issued for a different sort order");
+            }
+        }
+
+        Sort.Direction sortDirection = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort order = "id".equals(sort)
+                ? Sort.by(sortDirection, "id")
+                : Sort.by(sortDirection, sort).and(Sort.by(sortDirection, "id"));
+
+        // One extra row tells us whether there is a next slice without running a count query. A range that runs
+        // out (e.g. the non-null keys) is continued by the next one, see KeysetRanges.
+        List<HibernateBook> rows = new ArrayList<>(size + 1);
+        for (Specification<HibernateBook> range : KeysetRanges.<HibernateBook>after(cursor)) {
+            int remaining = size + 1 - rows.size();
+            if (remaining == 0) {
+                break;
+            }
+            rows.addAll(hibernateRepository.findBy(specification.and(range),
+                    query -> query.sortBy(order).limit(remaining).all()));
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<HibernateBook> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            HibernateBook last = content.getLast();
+            nextCursor = new KeysetCursor(sort, ascending, sortValue(last, sort), last.getId()).encode();
+        }
+        return new KeysetSlice<>(content, content.size(), hasNext, nextCursor);
+    }
+
+    /**
+     * Conditional requests are answered from the cached or stored validators; the image bytes are only loaded
+     * when the client's copy is stale. Images in an external {@link BlobStore} are streamed to the client unless
+     * they are small enough to be cached. {@code width}, {@code height} and {@code format} select a resized
+     * variant instead of the original.
+     */
+    public ResponseEntity<Resource> getImageBook(@PathVariable Long id, Integer width, Integer height, String format,
+                                                 WebRequest request) {
+        ImageVariant variant = imageVariants.parse(width, height, format);
+        if (variant != null) {
+            return getImageVariant(id, variant, request);
+        }
+
+        String cacheKey = IMAGE_CACHE_PREFIX + id;
+        long cacheVersion = imageCache.version();
+        CachedImage cached = imageCache.get(cacheKey);
+        if (cached != null) {
+            if (imageValidators.isNotModified(request, cached.eTag(), cached.lastModified())) {
+                return imageValidators.notModified(cached.eTag(), cached.lastModified());
+            }
+            return imageResponse(cached);
+        }
+
+        Optional<StoredImage> storedOpt = imageRepository.findStoredImageById(id);
+        if (storedOpt.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        StoredImage stored = storedOpt.get();
+        String eTag = ImageValidators.eTag(stored.getContentHash());
+        if (imageValidators.isNotModified(request, eTag, stored.getUploadedAt())) {
+            return imageValidators.notModified(eTag, stored.getUploadedAt());
+        }
+
+        if (stored.getStorageKey() == null) {
+            return imageRepository.findImageDataById(id).map(imageData -> {
+                CachedImage image = new CachedImage(imageData, stored.getContentType(), eTag, stored.getUploadedAt());
+                imageCache.put(cacheKey, image, cacheVersion);
+                return imageResponse(image);
+            }).orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        }
+
+        if (blobStore == null) {
+            logger.error("Image {} is in blob storage, but bookdb.image.storage is bytea", id);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        try {
+            InputStream content = blobStore.read(stored.getStorageKey());
+            if (content == null) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            Long contentLength = stored.getContentLength();
+            if (contentLength != null && contentLength <= imageCache.maxObjectSize()) {
+                byte[] imageData;
+                try (content) {
+                    imageData = content.readAllBytes();
+                }
+                CachedImage image = new CachedImage(imageData, stored.getContentType(), eTag, stored.getUploadedAt());
+                imageCache.put(cacheKey, image, cacheVersion);
+                return imageResponse(image);
+            }
+
+            HttpHeaders headers = imageValidators.headers(eTag, stored.getUploadedAt());
+            if (stored.getContentType() != null) {
+                headers.setContentType(MediaType.parseMediaType(stored.getContentType()));
+            }
+            if (contentLength != null) {
+                headers.setContentLength(contentLength);
+            }
+            return new ResponseEntity<>(new InputStreamResource(content), headers, HttpStatus.OK);
+        } catch (IOException e) {
+            logger.error("Failed to read image {} from blob storage", id, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
     }
 
+    /**
+     * Variants are rendered once per original and kept next to it: in {@code books.image_variant} for BYTEA
+     * images, under {@code v3/variants/} in the blob store otherwise. After that they are served like originals.
+     */
+    private ResponseEntity<Resource> getImageVariant(Long id, ImageVariant requested, WebRequest request) {
+        String cacheKey = IMAGE_CACHE_PREFIX + id + "/" + requested.name();
+        long cacheVersion = imageCache.version();
+        CachedImage cached = imageCache.get(cacheKey);
+        if (cached != null) {
+            if (imageValidators.isNotModified(request, cached.eTag(), cached.lastModified())) {
+                return imageValidators.notModified(cached.eTag(), cached.lastModified());
+            }
+            return imageResponse(cached);
+        }
+
+        Optional<StoredImage> storedOpt = imageRepository.findStoredImageById(id);
+        if (storedOpt.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        StoredImage stored = storedOpt.get();
+        ImageVariant variant = imageVariants.resolve(requested, stored.getContentType());
+        String eTag = ImageValidators.eTag(stored.getContentHash(), variant);
+        if (imageValidators.isNotModified(request, eTag, stored.getUploadedAt())) {
+            return imageValidators.notModified(eTag, stored.getUploadedAt());
+        }
+
+        String sourceHash = stored.getContentHash() == null ? UNHASHED_SOURCE : stored.getContentHash();
+        byte[] data;
+        try {
+            // Stored variants are read here, only rendering a missing one waits for a render worker.
+            data = findImageVariant(id, stored, sourceHash, variant);
+            if (data == null) {
+                data = imageVariants.getOrCreate(IMAGE_CACHE_PREFIX + id + "/" + sourceHash + "/" + variant.name(),
+                        () -> renderImageVariant(id, stored, sourceHash, variant)).join();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read variant {} of image {}", variant.name(), id, e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ResponseStatusException statusException) {
+                throw statusException;
+            }
+            logger.error("Failed to create variant {} of image {}", variant.name(), id, e.getCause());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
 
-    public ResponseEntity<byte[]> getImageBook(@PathVariable Long id) {
-        Optional<ImageBook> imageBookOpt = imageRepository.findById(id);
-        return imageBookOpt.map(imageBook -> new ResponseEntity<>(imageBook.getImageData(),
-                HttpStatus.OK)).orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        CachedImage image = new CachedImage(data, ImageVariants.contentType(variant), eTag, stored.getUploadedAt());
+        imageCache.put(cacheKey, image, cacheVersion);
+        return imageResponse(image);
+    }
+
+    /**
+     * @return the stored variant, or {@code null} if it has not been rendered yet
+     */
+    private byte[] findImageVariant(Long id, StoredImage stored, String sourceHash, ImageVariant variant)
+            throws IOException {
+        if (stored.getStorageKey() == null) {
+            return imageVariantRepository.findData(id, sourceHash, variant.name()).orElse(null);
+        }
+        try (InputStream existing = variantBlobStore(id).read(variantStorageKey(id, sourceHash, variant))) {
+            return existing == null ? null : existing.readAllBytes();
+        }
+    }
+
+    private byte[] renderImageVariant(Long id, StoredImage stored, String sourceHash, ImageVariant variant)
+            throws IOException {
+        if (stored.getStorageKey() == null) {
+            byte[] original = imageRepository.findImageDataById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found"));
+            byte[] data = imageVariants.render(new ByteArrayInputStream(original), variant);
+            try {
+                imageVariantRepository.save(ImageVariantBook.builder()
+                        .imageId(id)
+                        .sourceHash(sourceHash)
+                        .name(variant.name())
+                        .data(data)
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Variant {} of image {} was stored concurrently", variant.name(), id);
+            }
+            return data;
+        }
+
+        byte[] data;
+        try (InputStream original = variantBlobStore(id).read(stored.getStorageKey())) {
+            if (original == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found");
+            }
+            data = imageVariants.render(original, variant);
+        }
+        blobStore.write(variantStorageKey(id, sourceHash, variant), new ByteArrayInputStream(data), data.length,
+                ImageVariants.contentType(variant));
+        return data;
+    }
+
+    private BlobStore variantBlobStore(Long id) {
+        if (blobStore == null) {
+            throw new IllegalStateException("Image " + id + " is in blob storage, but bookdb.image.storage is bytea");
+        }
+        return blobStore;
+    }
+
+    private static String variantStorageKey(Long id, String sourceHash, ImageVariant variant) {
+        return VARIANT_STORAGE_PREFIX + id + "/" + sourceHash + "/" + variant.name();
+    }
+
+    private ResponseEntity<Resource> imageResponse(CachedImage image) {
+        HttpHeaders headers = imageValidators.headers(image.eTag(), image.lastModified());
+        if (image.contentType() != null) {
+            headers.setContentType(MediaType.parseMediaType(image.contentType()));
+        }
+        return new ResponseEntity<>(new ByteArrayResource(image.data()), headers, HttpStatus.OK);
+    }
+
+    private void deleteBlobVariants(Long id) {
+        try {
+            blobStore.deleteAll(VARIANT_STORAGE_PREFIX + id + "/");
+        } catch (IOException e) {
+            logger.warn("Failed to delete variants of image {}", id, e);
+        }
+    }
+
+    private void deleteBlob(String storageKey) {
+        try {
+            blobStore.delete(storageKey);
+        } catch (IOException e) {
+            logger.warn("Failed to delete blob {}", storageKey, e);
+        }
+    }
+
+    private static String toFilterKey(Double lastReaded, String author, String filter) {
+        StringBuilder filterKey = new StringBuilder();
+        if (lastReaded != null) {
+            filterKey.append("lastReaded=").append(lastReaded).append(';');
+        }
+        if (author != null && !author.isEmpty()) {
+            filterKey.append("author=").append(author).append(';');
+        }
+        if (filter != null && !filter.isBlank()) {
+            filterKey.append("filter=").append(RsqlSpecificationCache.normalize(filter)).append(';');
+        }
+        return filterKey.toString();
+    }
+
+    private Specification<HibernateBook> toSpecification(Double lastReaded, String author, String filter) {
+        Specification<HibernateBook> specification = toSpecification(lastReaded, author);
+        if (filter == null || filter.isBlank()) {
+            return specification;
+        }
+        return specification.and(rsqlSpecificationCache.getSpecification(HibernateBook.class, filter, RSQL_PROPERTIES));
     }
 
     private Specification<HibernateBook> toSpecification(Double lastReaded, String author) {
@@ -151,4 +596,13 @@ public class HibernateService implements HibernateInterfaceService {
             return predicate;
         };
     }
+
+    private static Object sortValue(HibernateBook book, String sort) {
+        return switch (sort) {
+            case "name" -> book.getName();
+            case "author" -> book.getAuthor();
+            case "lastReaded" -> book.getLastReaded();
+            default -> book.getId();
+        };
+    }
 }
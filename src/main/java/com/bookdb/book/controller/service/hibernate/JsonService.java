@@ -1,35 +1,58 @@
 package com.bookdb.book.controller.service.hibernate;
 
 import com.bookdb.book.controller.JsonController;
+import com.bookdb.book.controller.pagination.CountCache;
+import com.bookdb.book.controller.pagination.CountStrategy;
+import com.bookdb.book.controller.pagination.HibernatePagination;
 import com.bookdb.book.controller.pagination.PageResponse;
+import com.bookdb.book.controller.pagination.PageResult;
 import com.bookdb.book.entity.BookDTO;
 import com.bookdb.book.entity.JsonBook;
+import com.bookdb.book.filtering.RsqlSpecificationCache;
+import com.bookdb.book.image.CachedImage;
+import com.bookdb.book.image.ImageCache;
+import com.bookdb.book.image.ImageMetadata;
+import com.bookdb.book.image.ImageValidators;
+import com.bookdb.book.image.ImageVariant;
+import com.bookdb.book.image.ImageVariants;
+import com.bookdb.book.image.S3ImageUploader;
+import com.bookdb.book.repositories.BookDtoProjection;
 import com.bookdb.book.repositories.JsonRepository;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.core.ResponseInputStream;
-import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.*;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @SuppressWarnings("LoggingSimilarMessage")
 @Service
@@ -37,6 +60,17 @@ public class JsonService implements JsonServiceInterface {
 
     private static final Logger logger = LoggerFactory.getLogger(JsonController.class);
 
+    private static final Map<String, String> RSQL_PROPERTIES = Map.of(
+            "id", "id",
+            "name", "book.name",
+            "author", "book.author",
+            "lastReaded", "book.lastReaded");
+
+    private static final String IMAGE_CACHE_PREFIX = "v4/";
+
+    // Images uploaded before content hashes were recorded.
+    private static final String UNHASHED_SOURCE = "unhashed";
+
     @Value("${aws.s3.region}")
     private String awsRegion;
 
@@ -47,18 +81,48 @@ public class JsonService implements JsonServiceInterface {
     private JsonRepository jsonRepository;
 
     @Autowired
-    private S3Client s3Client;
+    private S3AsyncClient s3AsyncClient;
 
-    public Page<JsonBook> getAllJsonBooks(int page, int size) {
-        PageRequest pageable = PageRequest.of(page, size);
-        return jsonRepository.findAll(pageable);
-    }
+    @Autowired
+    private S3ImageUploader s3ImageUploader;
+
+    @Autowired
+    private ImageCache imageCache;
+
+    @Autowired
+    private ImageValidators imageValidators;
+
+    @Autowired
+    private ImageVariants imageVariants;
+
+    @Autowired
+    private HibernatePagination hibernatePagination;
+
+    @Autowired
+    private CountCache countCache;
 
+    @Autowired
+    private RsqlSpecificationCache rsqlSpecificationCache;
 
+    public PageResult<BookDTO> getAllJsonBooks(String filter, String fields, int page, int size,
+                                               CountStrategy countStrategy) {
+        PageRequest pageable = PageRequest.of(page, size);
+        BookDtoProjection projection = new BookDtoProjection(parseFields(fields));
+        if (filter == null || filter.isBlank()) {
+            return hibernatePagination.findPage(JsonBook.class, null, "", pageable, countStrategy, projection);
+        }
+        Specification<JsonBook> specification =
+                rsqlSpecificationCache.getSpecification(JsonBook.class, filter, RSQL_PROPERTIES);
+        return hibernatePagination.findPage(JsonBook.class, specification,
+                "filter=" + RsqlSpecificationCache.normalize(filter) + ";", pageable, countStrategy, projection);
+    }
 
-    public ResponseEntity<JsonBook> getJsonBookById(@PathVariable Long id) {
+    public ResponseEntity<BookDTO> getJsonBookById(@PathVariable Long id, String fields) {
         logger.info("Fetching HibernateBook with ID: {}", id);
-        Optional<JsonBook> book = jsonRepository.findById(id);
+        Set<BookDTO.Field> selected = parseFields(fields);
+        Optional<BookDTO> book = selected.isEmpty()
+                ? jsonRepository.findBookDtoById(id)
+                : jsonRepository.findBookDtoById(id, selected);
         if (book.isPresent()) {
             logger.info("Found HibernateBook with ID: {}", id);
             return ResponseEntity.ok(book.get());
@@ -68,6 +132,22 @@ public class JsonService implements JsonServiceInterface {
         }
     }
 
+    /**
+     * {@code fields} is a comma-separated list such as {@code name,author}; empty selects every field.
+     */
+    private static Set<BookDTO.Field> parseFields(String fields) {
+        Set<BookDTO.Field> selected = EnumSet.noneOf(BookDTO.Field.class);
+        if (fields == null || fields.isBlank()) {
+            return selected;
+        }
+        for (String param : fields.split(",")) {
+            String name = param.trim();
+            selected.add(BookDTO.Field.fromParam(name).orElseThrow(() ->
+                    new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field '" + name + "'")));
+        }
+        return selected;
+    }
+
     public ResponseEntity<Object> createJsonBook(@Valid @org.springframework.web.bind.annotation.RequestBody JsonBook jsonBook, BindingResult bindingResult) {
         logger.info("Creating new HibernateBook with data: {}", jsonBook);
         if (bindingResult.hasErrors()) {
@@ -81,6 +161,7 @@ public class JsonService implements JsonServiceInterface {
         }
 
         JsonBook savedBook = jsonRepository.save(jsonBook);
+        countCache.invalidate(JsonBook.class);
         return new ResponseEntity<>(savedBook, HttpStatus.CREATED);
     }
 
@@ -114,6 +195,9 @@ public class JsonService implements JsonServiceInterface {
         logger.info("Deleting HibernateBook with ID: {}", id);
         if (jsonRepository.existsById(id)) {
             jsonRepository.deleteById(id);
+            countCache.invalidate(JsonBook.class);
+            imageCache.invalidate(IMAGE_CACHE_PREFIX + id);
+            deleteImageVariants(id);
             logger.info("HibernateBook with ID: {} deleted successfully.", id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } else {
@@ -122,88 +206,257 @@ public class JsonService implements JsonServiceInterface {
         }
     }
 
-    public ResponseEntity<String> uploadS3Image(@PathVariable Long id, @RequestParam("image") MultipartFile imageFile) {
+    public CompletableFuture<ResponseEntity<String>> uploadS3Image(@PathVariable Long id, @RequestParam("image") MultipartFile imageFile) {
         logger.info("Uploading image for JsonBook with ID: {} to S3", id);
-        return jsonRepository.findById(id).map(book -> {
-
-            if (imageFile.isEmpty()) {
-                logger.warn("Uploaded image is empty for JsonBook ID: {}", id);
-                return new ResponseEntity<>("Image can't be empty", HttpStatus.BAD_REQUEST);
-            }
+        if (!jsonRepository.existsById(id)) {
+            logger.warn("JsonBook with ID: {} not found.", id);
+            return CompletableFuture.completedFuture(new ResponseEntity<>("Book not found", HttpStatus.NOT_FOUND));
+        }
 
-            if (!Objects.requireNonNull(imageFile.getContentType()).startsWith("image/")) {
-                logger.warn("Invalid file type uploaded for JsonBook with ID: {}", id);
-                return new ResponseEntity<>("Invalid file type. Only images are allowed", HttpStatus.BAD_REQUEST);
-            }
+        if (imageFile.isEmpty()) {
+            logger.warn("Uploaded image is empty for JsonBook ID: {}", id);
+            return CompletableFuture.completedFuture(new ResponseEntity<>("Image can't be empty", HttpStatus.BAD_REQUEST));
+        }
 
-            try {
+        if (!Objects.requireNonNull(imageFile.getContentType()).startsWith("image/")) {
+            logger.warn("Invalid file type uploaded for JsonBook with ID: {}", id);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>("Invalid file type. Only images are allowed", HttpStatus.BAD_REQUEST));
+        }
 
-                Region region = Region.of(awsRegion);
-                String fileName = "book-images/" + id;
+        Region region = Region.of(awsRegion);
+        String fileName = "book-images/" + id;
+        String imageUrl = "https://" + awsBucketName + ".s3." + region.id() + ".amazonaws.com/" + fileName;
+
+        return s3ImageUploader.upload(awsBucketName, fileName, imageFile)
+                .thenApply(contentHash -> jsonRepository.updateImageMetadata(
+                        id, contentHash, imageFile.getContentType(), Instant.now()))
+                .handle((_, e) -> {
+                    if (e != null) {
+                        logger.error("Failed to upload image for JsonBook with ID: {}", id, unwrap(e));
+                        return new ResponseEntity<>("Image upload to S3 failed", HttpStatus.INTERNAL_SERVER_ERROR);
+                    }
+                    imageCache.invalidate(IMAGE_CACHE_PREFIX + id);
+                    deleteImageVariants(id);
+                    logger.info("Image for JsonBook with ID: {} uploaded successfully to S3 at URL: {}", id, imageUrl);
+                    return new ResponseEntity<>("Image uploaded successfully", HttpStatus.CREATED);
+                });
+    }
 
-                PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                        .bucket(awsBucketName)
-                        .key(fileName)
-                        .build();
+    /**
+     * Streams the image from S3 to the client. The future completes once S3 has sent the response headers, the
+     * body is then copied as it arrives. {@code range} is forwarded as is, so S3 answers byte ranges itself and
+     * ignores anything it cannot serve. Conditional requests are answered from the validators stored at upload
+     * time, without calling S3. {@code width}, {@code height} and {@code format} select a resized variant
+     * instead of the original.
+     */
+    public CompletableFuture<ResponseEntity<Object>> getImageBook(@PathVariable Long id, String range, Integer width,
+                                                                  Integer height, String format, WebRequest request) {
+        ImageVariant variant = imageVariants.parse(width, height, format);
+        if (variant != null) {
+            return getImageVariant(id, variant, request);
+        }
 
-                s3Client.putObject(putObjectRequest, RequestBody.fromBytes(imageFile.getBytes()));
+        String cacheKey = IMAGE_CACHE_PREFIX + id;
+        long cacheVersion = imageCache.version();
+        CachedImage cached = imageCache.get(cacheKey);
+        if (cached != null) {
+            if (imageValidators.isNotModified(request, cached.eTag(), cached.lastModified())) {
+                return CompletableFuture.completedFuture(imageValidators.notModified(cached.eTag(), cached.lastModified()));
+            }
+            return CompletableFuture.completedFuture(cachedImageResponse(cached));
+        }
 
-                String imageUrl = "https://" + awsBucketName + ".s3." + region.id() + ".amazonaws.com/" + fileName;
+        logger.info("Fetching image for JsonBook with ID: {} from S3", id);
 
-//                book.setImageUrl(imageUrl);
-                jsonRepository.save(book);
+        Optional<ImageMetadata> metadata = jsonRepository.findImageMetadataById(id);
+        if (metadata.isEmpty()) {
+            logger.warn("JsonBook with ID: {} not found.", id);
+            return CompletableFuture.completedFuture(new ResponseEntity<>("Book not found", HttpStatus.NOT_FOUND));
+        }
+        String storedETag = ImageValidators.eTag(metadata.get().getContentHash());
+        Instant uploadedAt = metadata.get().getUploadedAt();
+        if (imageValidators.isNotModified(request, storedETag, uploadedAt)) {
+            return CompletableFuture.completedFuture(imageValidators.notModified(storedETag, uploadedAt));
+        }
 
-                logger.info("Image for JsonBook with ID: {} uploaded successfully to S3 at URL: {}", id, imageUrl);
-                return new ResponseEntity<>("Image uploaded successfully", HttpStatus.CREATED);
+        String fileName = "book-images/" + id;
+
+        GetObjectRequest objectRequest = GetObjectRequest.builder()
+                .bucket(awsBucketName)
+                .key(fileName)
+                .range(range)
+                .build();
+
+        return s3AsyncClient.getObject(objectRequest, AsyncResponseTransformer.toBlockingInputStream())
+                .handle((s3Image, e) -> {
+                    if (e != null) {
+                        return imageFailure(id, range, unwrap(e));
+                    }
+                    GetObjectResponse object = s3Image.response();
+                    // Objects uploaded before hashes were recorded fall back to S3's own validators.
+                    String eTag = storedETag != null ? storedETag : object.eTag();
+                    Instant lastModified = uploadedAt != null ? uploadedAt : object.lastModified();
+
+                    // Whole small images are read into the cache and served from there, ranges stream through.
+                    if (range == null && object.contentLength() != null
+                            && object.contentLength() <= imageCache.maxObjectSize()) {
+                        try (s3Image) {
+                            CachedImage image = new CachedImage(s3Image.readAllBytes(), object.contentType(), eTag,
+                                    lastModified);
+                            imageCache.put(cacheKey, image, cacheVersion);
+                            return cachedImageResponse(image);
+                        } catch (IOException readFailure) {
+                            return imageFailure(id, range, readFailure);
+                        }
+                    }
+
+                    HttpHeaders headers = imageValidators.headers(eTag, lastModified);
+                    headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+                    headers.setContentType(object.contentType() == null
+                            ? MediaType.APPLICATION_OCTET_STREAM
+                            : MediaType.parseMediaType(object.contentType()));
+                    if (object.contentLength() != null) {
+                        headers.setContentLength(object.contentLength());
+                    }
+                    if (object.contentRange() != null) {
+                        headers.set(HttpHeaders.CONTENT_RANGE, object.contentRange());
+                    }
+
+                    logger.info("Streaming image for JsonBook with ID: {}", id);
+                    // InputStreamResource is copied to the response as is and closed afterwards.
+                    return new ResponseEntity<>(new InputStreamResource(s3Image), headers,
+                            object.contentRange() == null ? HttpStatus.OK : HttpStatus.PARTIAL_CONTENT);
+                });
+    }
 
-            } catch (S3Exception | IOException e) {
-                logger.error("Failed to upload image for JsonBook with ID: {}", id, e);
-                return new ResponseEntity<>("Image upload to S3 failed", HttpStatus.INTERNAL_SERVER_ERROR);
+    /**
+     * Variants are rendered once per original and stored next to it under {@code book-images/{id}/variants/}, the
+     * key includes the hash of the original so a re-upload never serves an outdated variant. Ranges are answered
+     * by Spring from the variant bytes.
+     */
+    private CompletableFuture<ResponseEntity<Object>> getImageVariant(Long id, ImageVariant requested,
+                                                                      WebRequest request) {
+        String cacheKey = IMAGE_CACHE_PREFIX + id + "/" + requested.name();
+        long cacheVersion = imageCache.version();
+        CachedImage cached = imageCache.get(cacheKey);
+        if (cached != null) {
+            if (imageValidators.isNotModified(request, cached.eTag(), cached.lastModified())) {
+                return CompletableFuture.completedFuture(imageValidators.notModified(cached.eTag(), cached.lastModified()));
             }
+            return CompletableFuture.completedFuture(cachedImageResponse(cached));
+        }
 
-        }).orElseGet(() -> {
+        Optional<ImageMetadata> metadata = jsonRepository.findImageMetadataById(id);
+        if (metadata.isEmpty()) {
             logger.warn("JsonBook with ID: {} not found.", id);
-            return new ResponseEntity<>("Book not found", HttpStatus.NOT_FOUND);
-        });
+            return CompletableFuture.completedFuture(new ResponseEntity<>("Book not found", HttpStatus.NOT_FOUND));
+        }
+        ImageVariant variant = imageVariants.resolve(requested, metadata.get().getContentType());
+        String eTag = ImageValidators.eTag(metadata.get().getContentHash(), variant);
+        Instant uploadedAt = metadata.get().getUploadedAt();
+        if (imageValidators.isNotModified(request, eTag, uploadedAt)) {
+            return CompletableFuture.completedFuture(imageValidators.notModified(eTag, uploadedAt));
+        }
+
+        String sourceHash = metadata.get().getContentHash() == null ? UNHASHED_SOURCE : metadata.get().getContentHash();
+        String variantKey = "book-images/" + id + "/variants/" + sourceHash + "/" + variant.name();
+        // Stored variants are fetched without a render worker, only a missing one is rendered on the pool.
+        return s3AsyncClient.getObject(GetObjectRequest.builder()
+                        .bucket(awsBucketName)
+                        .key(variantKey)
+                        .build(), AsyncResponseTransformer.toBytes())
+                .thenApply(ResponseBytes::asByteArrayUnsafe)
+                .exceptionallyCompose(e -> unwrap(e) instanceof NoSuchKeyException
+                        ? imageVariants.getOrCreate(variantKey, () -> renderImageVariant(id, variantKey, variant))
+                        : CompletableFuture.failedFuture(e))
+                .handle((data, e) -> {
+                    if (e != null) {
+                        Throwable cause = unwrap(e);
+                        if (cause instanceof ResponseStatusException statusException) {
+                            return new ResponseEntity<>(statusException.getReason(), statusException.getStatusCode());
+                        }
+                        return imageFailure(id, null, cause);
+                    }
+                    CachedImage image = new CachedImage(data, ImageVariants.contentType(variant), eTag, uploadedAt);
+                    imageCache.put(cacheKey, image, cacheVersion);
+                    return cachedImageResponse(image);
+                });
     }
 
-    public ResponseEntity<Object> getImageBook(@PathVariable Long id) {
+    /**
+     * Runs on an {@link ImageVariants} worker, so it may block on S3.
+     */
+    private byte[] renderImageVariant(Long id, String variantKey, ImageVariant variant) throws IOException {
+        byte[] data;
+        try (ResponseInputStream<GetObjectResponse> original = s3AsyncClient.getObject(GetObjectRequest.builder()
+                .bucket(awsBucketName)
+                .key("book-images/" + id)
+                .build(), AsyncResponseTransformer.toBlockingInputStream()).join()) {
+            data = imageVariants.render(original, variant);
+        }
+        s3AsyncClient.putObject(PutObjectRequest.builder()
+                .bucket(awsBucketName)
+                .key(variantKey)
+                .contentType(ImageVariants.contentType(variant))
+                .contentLength((long) data.length)
+                .build(), AsyncRequestBody.fromBytes(data)).join();
+        return data;
+    }
 
-        logger.info("Fetching image for JsonBook with ID: {} from S3", id);
+    private void deleteImageVariants(Long id) {
+        ListObjectsV2Request listRequest = ListObjectsV2Request.builder()
+                .bucket(awsBucketName)
+                .prefix("book-images/" + id + "/variants/")
+                .build();
+        s3AsyncClient.listObjectsV2Paginator(listRequest)
+                .subscribe(page -> {
+                    if (page.contents().isEmpty()) {
+                        return;
+                    }
+                    s3AsyncClient.deleteObjects(DeleteObjectsRequest.builder()
+                            .bucket(awsBucketName)
+                            .delete(Delete.builder()
+                                    .objects(page.contents().stream()
+                                            .map(object -> ObjectIdentifier.builder().key(object.key()).build())
+                                            .toList())
+                                    .build())
+                            .build());
+                })
+                .whenComplete((_, e) -> {
+                    if (e != null) {
+                        logger.warn("Failed to delete image variants of JsonBook with ID: {}", id, e);
+                    }
+                });
+    }
 
-        Optional<JsonBook> bookOptional = jsonRepository.findById(id);
-        if (bookOptional.isEmpty()) {
-            logger.warn("JsonBook with ID: {} not found.", id);
-            return new ResponseEntity<>("Book not found", HttpStatus.NOT_FOUND);
-        }
+    /**
+     * Returned as a {@link ByteArrayResource}, so Spring answers {@code Range} requests from the cached bytes.
+     */
+    private ResponseEntity<Object> cachedImageResponse(CachedImage image) {
+        HttpHeaders headers = imageValidators.headers(image.eTag(), image.lastModified());
+        headers.setContentType(image.contentType() == null
+                ? MediaType.APPLICATION_OCTET_STREAM
+                : MediaType.parseMediaType(image.contentType()));
+        return new ResponseEntity<>(new ByteArrayResource(image.data()), headers, HttpStatus.OK);
+    }
 
-        try {
-            String fileName = "book-images/" + id;
-
-            GetObjectRequest objectRequest = GetObjectRequest.builder()
-                    .bucket(awsBucketName)
-                    .key(fileName)
-                    .build();
-            try {
-                ResponseInputStream<GetObjectResponse> s3Image = s3Client.getObject(objectRequest);
-                ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-                byte[] buffer = new byte[1024];
-                int len;
-                while ((len = s3Image.read(buffer)) != -1) {
-                    byteArrayOutputStream.write(buffer, 0, len);
-                }
-                logger.info("Image for JsonBook with ID: {} fetched successfully", id);
-                return new ResponseEntity<>(byteArrayOutputStream.toByteArray(), HttpStatus.OK);
-            } catch (NoSuchKeyException e) {
-                logger.warn("Image for JsonBook with ID: {} not found on S3", id);
-                return new ResponseEntity<>("Image not found on S3", HttpStatus.NOT_FOUND);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        } catch (S3Exception e) {
-            logger.error("Failed to fetch image for JsonBook with ID: {}", id, e);
-            return new ResponseEntity<>("Failed to retrieve image from S3", HttpStatus.INTERNAL_SERVER_ERROR);
+    private ResponseEntity<Object> imageFailure(Long id, String range, Throwable e) {
+        if (e instanceof NoSuchKeyException) {
+            logger.warn("Image for JsonBook with ID: {} not found on S3", id);
+            return new ResponseEntity<>("Image not found on S3", HttpStatus.NOT_FOUND);
         }
+        if (e instanceof S3Exception s3Exception
+                && s3Exception.statusCode() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+            logger.warn("Unsatisfiable range '{}' for image of JsonBook with ID: {}", range, id);
+            return new ResponseEntity<>("Requested range not satisfiable", HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
+        logger.error("Failed to fetch image for JsonBook with ID: {}", id, e);
+        return new ResponseEntity<>("Failed to retrieve image from S3", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 
     public List<JsonBook> getBooksByAge(@RequestParam String author) {
@@ -1,23 +1,26 @@
 package com.bookdb.book.controller.service.hibernate;
 
+import com.bookdb.book.controller.pagination.CountStrategy;
+import com.bookdb.book.controller.pagination.PageResult;
 import com.bookdb.book.entity.BookDTO;
 import com.bookdb.book.entity.JsonBook;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface JsonServiceInterface {
 
-    ResponseEntity<JsonBook> getJsonBookById(@PathVariable Long id);
+    ResponseEntity<BookDTO> getJsonBookById(@PathVariable Long id, String fields);
 
-    Page<JsonBook> getAllJsonBooks(int page, int size);
+    PageResult<BookDTO> getAllJsonBooks(String filter, String fields, int page, int size, CountStrategy countStrategy);
 
     ResponseEntity<Object> createJsonBook(@Valid @org.springframework.web.bind.annotation.RequestBody JsonBook jsonBook, BindingResult bindingResult);
 
@@ -25,9 +28,10 @@ public interface JsonServiceInterface {
 
     ResponseEntity<Void> deleteJsonBook(@PathVariable Long id);
 
-    ResponseEntity<String> uploadS3Image(@PathVariable Long id, @RequestParam("image") MultipartFile imageFile);
+    CompletableFuture<ResponseEntity<String>> uploadS3Image(@PathVariable Long id, @RequestParam("image") MultipartFile imageFile);
 
-    ResponseEntity<Object> getImageBook(@PathVariable Long id);
+    CompletableFuture<ResponseEntity<Object>> getImageBook(@PathVariable Long id, String range, Integer width, Integer height,
+                                                           String format, WebRequest request);
 
     List<JsonBook> getBooksByAge(@RequestParam String author);
 
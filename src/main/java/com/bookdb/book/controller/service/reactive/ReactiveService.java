@@ -0,0 +1,189 @@
+package com.bookdb.book.controller.service.reactive;
+
+import com.bookdb.book.controller.ReactiveController;
+import com.bookdb.book.db.BookCacheEvictor;
+import com.bookdb.book.entity.HibernateBook;
+import io.r2dbc.spi.Readable;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The /v3 book operations over R2DBC. Writes bypass Hibernate, so they evict through {@link BookCacheEvictor}
+ * like the /v2 JDBC endpoints do.
+ */
+@Service
+public class ReactiveService implements ReactiveServiceInterface {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveController.class);
+
+    private static final String COLUMNS = "id, name, author, lastreaded, version";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private BookCacheEvictor bookCacheEvictor;
+
+    @Value("${bookdb.v5.fetch-size:100}")
+    private int fetchSize;
+
+    /**
+     * Streams in keyset chunks of {@code bookdb.v5.fetch-size} rows. Each chunk is a short {@code id > :after}
+     * query whose connection goes back to the pool once its rows are read, and the next chunk is only queried
+     * after the subscriber has taken all rows of the previous one. A slow consumer therefore holds no connection
+     * while it reads, and the pool only bounds how many chunks are fetched at the same time.
+     */
+    public Flux<HibernateBook> getAllBooks(String name, String author, long after, Integer limit) {
+        long total = limit == null ? Long.MAX_VALUE : limit;
+        return chunk(name, author, after, total)
+                .expand(chunk -> chunk.isLast()
+                        ? Mono.empty()
+                        : chunk(name, author, chunk.books().getLast().getId(), chunk.remaining()))
+                .concatMapIterable(Chunk::books, 1);
+    }
+
+    /**
+     * expand subscribes to the next chunk as soon as the previous one completes, so the query waits behind a
+     * {@code Mono.just}, which only emits once the chunk is requested; {@code hide()} stops flatMap from reading
+     * the value at subscription instead.
+     */
+    private Mono<Chunk> chunk(String name, String author, long after, long remaining) {
+        int size = (int) Math.min(fetchSize, remaining);
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM books.book WHERE id > :after");
+        if (name != null) {
+            sql.append(" AND name LIKE :name");
+        }
+        if (author != null) {
+            sql.append(" AND author LIKE :author");
+        }
+        sql.append(" ORDER BY id LIMIT :limit");
+
+        return Mono.just(after).hide().flatMap(from -> {
+            DatabaseClient.GenericExecuteSpec query = databaseClient.sql(sql.toString())
+                    .bind("after", from)
+                    .bind("limit", size);
+            if (name != null) {
+                query = query.bind("name", toPrefixPattern(name));
+            }
+            if (author != null) {
+                query = query.bind("author", toPrefixPattern(author));
+            }
+            return query.map(ReactiveService::toBook).all().collectList();
+        }).map(books -> new Chunk(books, size, remaining - books.size()));
+    }
+
+    private record Chunk(List<HibernateBook> books, int size, long remaining) {
+
+        boolean isLast() {
+            return books.size() < size || remaining == 0;
+        }
+    }
+
+    public Mono<ResponseEntity<HibernateBook>> getBookById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM books.book WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveService::toBook)
+                .one()
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    public Mono<ResponseEntity<Object>> createBook(HibernateBook book) {
+        Map<String, String> errors = validate(book);
+        if (!errors.isEmpty()) {
+            return Mono.just(new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST));
+        }
+        return databaseClient.sql("INSERT INTO books.book (name, author, lastreaded) VALUES (:name, :author, :lastReaded) " +
+                        "RETURNING " + COLUMNS)
+                .bind("name", book.getName())
+                .bind("author", book.getAuthor())
+                .bind("lastReaded", book.getLastReaded())
+                .map(ReactiveService::toBook)
+                .one()
+                .doOnNext(saved -> bookCacheEvictor.evict(saved.getId()))
+                .map(saved -> new ResponseEntity<>(saved, HttpStatus.CREATED));
+    }
+
+    /**
+     * Same contract as the /v3 update: a {@code version} in the body must still be current, otherwise 409.
+     */
+    public Mono<ResponseEntity<Object>> updateBook(Long id, HibernateBook book) {
+        Map<String, String> errors = validate(book);
+        if (!errors.isEmpty()) {
+            return Mono.just(new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST));
+        }
+        DatabaseClient.GenericExecuteSpec update = databaseClient.sql("UPDATE books.book " +
+                        "SET name = :name, author = :author, lastreaded = :lastReaded, version = version + 1 " +
+                        "WHERE id = :id AND (CAST(:version AS BIGINT) IS NULL OR version = CAST(:version AS BIGINT)) " +
+                        "RETURNING " + COLUMNS)
+                .bind("id", id)
+                .bind("name", book.getName())
+                .bind("author", book.getAuthor())
+                .bind("lastReaded", book.getLastReaded());
+        update = book.getVersion() == null
+                ? update.bindNull("version", Long.class)
+                : update.bind("version", book.getVersion());
+
+        // Locked like the /v3 update, released before the response is built whether or not a row was updated.
+        return bookCacheEvictor.writeLocked(id, update.map(ReactiveService::toBook).one())
+                .<ResponseEntity<Object>>map(ResponseEntity::ok)
+                .switchIfEmpty(Mono.defer(() -> book.getVersion() == null
+                        ? Mono.just(new ResponseEntity<>("Book not found", HttpStatus.NOT_FOUND))
+                        : exists(id).map(exists -> {
+                            if (!exists) {
+                                return new ResponseEntity<>("Book not found", HttpStatus.NOT_FOUND);
+                            }
+                            logger.warn("Stale version {} in update of HibernateBook with ID: {}", book.getVersion(), id);
+                            return new ResponseEntity<>("Book was modified concurrently", HttpStatus.CONFLICT);
+                        })));
+    }
+
+    private Mono<Boolean> exists(Long id) {
+        return databaseClient.sql("SELECT 1 FROM books.book WHERE id = :id")
+                .bind("id", id)
+                .map(row -> true)
+                .one()
+                .defaultIfEmpty(false);
+    }
+
+    private Map<String, String> validate(HibernateBook book) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (ConstraintViolation<HibernateBook> violation : validator.validate(book)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+            logger.warn("Validation error in field '{}': {}", violation.getPropertyPath(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    // A prefix match, so the text_pattern_ops indexes on name and author apply.
+    private static String toPrefixPattern(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static HibernateBook toBook(Readable row) {
+        return HibernateBook.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .author(row.get("author", String.class))
+                .lastReaded(row.get("lastreaded", Integer.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.bookdb.book.controller.service.reactive;
+
+import com.bookdb.book.entity.HibernateBook;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveServiceInterface {
+
+    Flux<HibernateBook> getAllBooks(String name, String author, long after, Integer limit);
+
+    Mono<ResponseEntity<HibernateBook>> getBookById(Long id);
+
+    Mono<ResponseEntity<Object>> createBook(HibernateBook book);
+
+    Mono<ResponseEntity<Object>> updateBook(Long id, HibernateBook book);
+}
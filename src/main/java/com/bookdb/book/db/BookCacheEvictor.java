@@ -0,0 +1,127 @@
+package com.bookdb.book.db;
+
+import com.bookdb.book.controller.pagination.CountCache;
+import com.bookdb.book.entity.HibernateBook;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Writes to {@code books.book} that bypass Hibernate (the /v2 JDBC endpoints) are invisible to its second-level
+ * and query caches and to {@link CountCache}. Callers evict after such a write has committed.
+ * <p>
+ * Hibernate cannot tell which cached query results a JDBC write affects, so every query region is cleared;
+ * entities are evicted by id where the id is known.
+ * <p>
+ * Evicting after the commit is not enough on its own: a read that loaded the old row just before the commit can put
+ * it back into the cache afterwards. Writes to a single book therefore go through {@link #writeLocked}, which
+ * soft-locks the cache entry the way Hibernate does for its own updates.
+ */
+@Component
+public class BookCacheEvictor {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CountCache countCache;
+
+    public void evict(long id) {
+        cache().evictEntityData(HibernateBook.class, id);
+        evictQueries();
+    }
+
+    /**
+     * Runs {@code write}, which has to commit before it returns, while book {@code id} is soft-locked in the
+     * second-level cache. Reads that miss the locked entry go to the database and cannot cache what they load, so
+     * a row read before the commit never gets back in. The lock stays until its timeout
+     * ({@code RegionFactory#getTimeout}), so the book is read from the database for a while after the write.
+     */
+    public <T> T writeLocked(long id, Supplier<T> write) {
+        Runnable unlock = lock(id);
+        try {
+            return write.get();
+        } finally {
+            unlock.run();
+        }
+    }
+
+    public void writeLocked(long id, Runnable write) {
+        writeLocked(id, () -> {
+            write.run();
+            return null;
+        });
+    }
+
+    /**
+     * The same for a reactive write: the lock is taken on subscription and released inside the chain when
+     * {@code write} emits, completes empty, fails or is cancelled, so downstream operators only see the result
+     * once the caches have been cleared.
+     */
+    public <T> Mono<T> writeLocked(long id, Mono<T> write) {
+        return Mono.defer(() -> {
+            Runnable unlock = lock(id);
+            return write
+                    .flatMap(result -> Mono.fromRunnable(unlock).thenReturn(result))
+                    .switchIfEmpty(Mono.fromRunnable(unlock))
+                    .doOnError(_ -> unlock.run())
+                    .doOnCancel(unlock);
+        });
+    }
+
+    /**
+     * @return releases the lock and clears the query caches; only the first call has an effect
+     */
+    private Runnable lock(long id) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(HibernateBook.class);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        AtomicBoolean released = new AtomicBoolean();
+        if (access == null) {
+            return () -> {
+                if (released.compareAndSet(false, true)) {
+                    evictQueries();
+                }
+            };
+        }
+
+        Object key = access.generateCacheKey(id, persister, sessionFactory, null);
+        SoftLock lock;
+        try (SessionImplementor session = sessionFactory.openTemporarySession()) {
+            lock = access.lockItem(session, key, null);
+        }
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                try (SessionImplementor session = sessionFactory.openTemporarySession()) {
+                    access.unlockItem(session, key, lock);
+                } finally {
+                    evictQueries();
+                }
+            }
+        };
+    }
+
+    public void evictAll() {
+        cache().evictEntityData(HibernateBook.class);
+        evictQueries();
+    }
+
+    private void evictQueries() {
+        cache().evictQueryRegions();
+        countCache.invalidate(HibernateBook.class);
+    }
+
+    private org.hibernate.Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -1,30 +1,44 @@
 package com.bookdb.book.db;
 
 import com.bookdb.book.entity.Book;
+import com.bookdb.book.entity.BookBatchResult;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
+@Repository
 public class BookDAO {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // INCREMENT BY of books.book_id_seq, see Initdb8.sql.
+    private static final int ID_BLOCK_SIZE = 50;
+
+    @FunctionalInterface
+    public interface BookCallback {
+        void accept(Book book) throws IOException;
+    }
+
+    @Autowired
+    private DatabaseConnection databaseConnection;
+
     public List<Book> getAllBooks() {
         String sql = "SELECT * FROM \"books\".\"book\"";
         List<Book> books = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = databaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
-                Book book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setName(rs.getString("name"));
-                book.setAuthor(rs.getString("age"));
-                book.setLastReaded(rs.getInt("lastReaded"));
-                books.add(book);
+                books.add(mapRow(rs));
             }
 
         } catch (SQLException e) {
@@ -34,10 +48,32 @@ public class BookDAO {
         return books;
     }
 
+    /**
+     * Reads every book through a server-side cursor and hands them to {@code callback} one at a time, so memory
+     * use does not depend on the table size. Postgres only honours the fetch size outside autocommit mode.
+     */
+    public void streamAllBooks(int fetchSize, BookCallback callback) throws SQLException, IOException {
+        String sql = "SELECT id, name, author, lastReaded FROM \"books\".\"book\" ORDER BY id";
+
+        try (Connection conn = databaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(fetchSize);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        callback.accept(mapRow(rs));
+                    }
+                }
+            } finally {
+                conn.rollback();
+            }
+        }
+    }
+
     public void createBooks(Book book) {
-        String sql = " INSERT INTO \"books\".\"book\"(name, age, lastReaded) VALUES (?, ?, ?)";
+        String sql = " INSERT INTO \"books\".\"book\"(name, author, lastReaded) VALUES (?, ?, ?)";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = databaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, book.getName());
@@ -55,17 +91,14 @@ public class BookDAO {
     public Book getBookById(int id) {
         String sql = "SELECT * FROM \"books\".\"book\" WHERE id = ?";
         Book book = new Book();
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = databaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                book.setId(rs.getInt("id"));
-                book.setName(rs.getString("name"));
-                book.setAuthor(rs.getString("age"));
-                book.setLastReaded(rs.getInt("lastReaded"));
+                book = mapRow(rs);
             }
 
         } catch (SQLException e) {
@@ -75,9 +108,9 @@ public class BookDAO {
     }
 
     public void updateBook(Book book) {
-        String sql = "UPDATE \"books\".\"book\" SET name = ?, age = ?, lastReaded = ? WHERE id = ?";
+        String sql = "UPDATE \"books\".\"book\" SET name = ?, author = ?, lastReaded = ?, version = version + 1 WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = databaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, book.getName());
@@ -98,7 +131,7 @@ public class BookDAO {
     public void deleteBook(int id) {
         String sql = "DELETE FROM \"books\".\"book\" WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = databaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, id);
@@ -112,5 +145,184 @@ public class BookDAO {
             System.out.println(e.getMessage());
         }
     }
-}
 
+    /**
+     * Inserts all books in one transaction using JDBC batches. With {@code reWriteBatchedInserts} enabled the
+     * driver folds every batch into multi-row INSERT statements. Ids are allocated up front in blocks, see
+     * {@link #allocateIds}, and written back to the books.
+     */
+    public List<BookBatchResult> createBooks(List<Book> books) {
+        String sql = "INSERT INTO \"books\".\"book\"(id, name, author, lastReaded) VALUES (?, ?, ?, ?)";
+
+        try (Connection conn = databaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                allocateIds(conn, books);
+                for (int i = 0; i < books.size(); i++) {
+                    Book book = books.get(i);
+                    pstmt.setInt(1, book.getId());
+                    pstmt.setString(2, book.getName());
+                    pstmt.setString(3, book.getAuthor());
+                    pstmt.setInt(4, book.getLastReaded());
+                    pstmt.addBatch();
+
+                    if ((i + 1) % BATCH_SIZE == 0 || i == books.size() - 1) {
+                        pstmt.executeBatch();
+                    }
+                }
+                conn.commit();
+                return created(books);
+            } catch (SQLException e) {
+                conn.rollback();
+                return failAll(books, e, false);
+            }
+        } catch (SQLException e) {
+            return failAll(books, e, false);
+        }
+    }
+
+    /**
+     * Streams all books to the server with {@code COPY FROM STDIN} into a transaction-scoped staging table and
+     * moves them into {@code books.book} with a single INSERT ... SELECT. The ids are allocated before the copy,
+     * see {@link #allocateIds}, and staged with the rows.
+     */
+    public List<BookBatchResult> copyBooks(List<Book> books) {
+        try (Connection conn = databaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                allocateIds(conn, books);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE TEMP TABLE book_import (id integer, name varchar(50), author varchar(50), " +
+                            "lastReaded integer) ON COMMIT DROP");
+                }
+
+                CopyIn copyIn = conn.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY book_import (id, name, author, lastReaded) FROM STDIN WITH (FORMAT csv)");
+                try {
+                    for (Book book : books) {
+                        byte[] row = toCsvRow(book).getBytes(StandardCharsets.UTF_8);
+                        copyIn.writeToCopy(row, 0, row.length);
+                    }
+                    copyIn.endCopy();
+                } finally {
+                    if (copyIn.isActive()) {
+                        copyIn.cancelCopy();
+                    }
+                }
+
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("INSERT INTO \"books\".\"book\"(id, name, author, lastReaded) " +
+                            "SELECT id, name, author, lastReaded FROM book_import");
+                }
+                conn.commit();
+                return created(books);
+            } catch (SQLException e) {
+                conn.rollback();
+                return failAll(books, e, false);
+            }
+        } catch (SQLException e) {
+            return failAll(books, e, false);
+        }
+    }
+
+    public List<BookBatchResult> updateBooks(List<Book> books) {
+        String sql = "UPDATE \"books\".\"book\" SET name = ?, author = ?, lastReaded = ?, version = version + 1 WHERE id = ?";
+        List<BookBatchResult> results = new ArrayList<>(books.size());
+
+        try (Connection conn = databaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < books.size(); i++) {
+                    Book book = books.get(i);
+                    pstmt.setString(1, book.getName());
+                    pstmt.setString(2, book.getAuthor());
+                    pstmt.setInt(3, book.getLastReaded());
+                    pstmt.setInt(4, book.getId());
+                    pstmt.addBatch();
+
+                    if ((i + 1) % BATCH_SIZE == 0 || i == books.size() - 1) {
+                        for (int count : pstmt.executeBatch()) {
+                            int index = results.size();
+                            BookBatchResult.Status status = count == 0
+                                    ? BookBatchResult.Status.NOT_FOUND
+                                    : BookBatchResult.Status.UPDATED;
+                            results.add(BookBatchResult.of(index, books.get(index).getId(), status));
+                        }
+                    }
+                }
+                conn.commit();
+                return results;
+            } catch (SQLException e) {
+                conn.rollback();
+                return failAll(books, e, true);
+            }
+        } catch (SQLException e) {
+            return failAll(books, e, true);
+        }
+    }
+
+    /**
+     * Sets the ids of all books from one round trip to {@code books.book_id_seq}. Like HibernateBook's pooled-lo
+     * generator, each nextval reserves the block of {@value #ID_BLOCK_SIZE} ids starting at the returned value, so
+     * a batch only leaves a gap after its last block. Single-row inserts still take their id from the column
+     * default and skip the rest of their block.
+     */
+    private static void allocateIds(Connection conn, List<Book> books) throws SQLException {
+        String sql = "SELECT nextval('\"books\".\"book_id_seq\"') FROM generate_series(1, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, (books.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                for (int i = 0; i < books.size(); i++) {
+                    if (i % ID_BLOCK_SIZE == 0) {
+                        rs.next();
+                    }
+                    books.get(i).setId(rs.getInt(1) + i % ID_BLOCK_SIZE);
+                }
+            }
+        }
+    }
+
+    private static List<BookBatchResult> created(List<Book> books) {
+        List<BookBatchResult> results = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            results.add(BookBatchResult.of(i, books.get(i).getId(), BookBatchResult.Status.CREATED));
+        }
+        return results;
+    }
+
+    // The whole batch runs in one transaction, so a single bad row rolls back every other row as well.
+    private static List<BookBatchResult> failAll(List<Book> books, SQLException e, boolean keepIds) {
+        SQLException cause = e.getNextException() != null ? e.getNextException() : e;
+        System.out.println(cause.getMessage());
+        List<BookBatchResult> results = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            if (!keepIds) {
+                book.setId(0);
+            }
+            results.add(BookBatchResult.failed(i, keepIds ? book.getId() : null, cause.getMessage()));
+        }
+        return results;
+    }
+
+    static Book mapRow(ResultSet rs) throws SQLException {
+        Book book = new Book();
+        book.setId(rs.getInt("id"));
+        book.setName(rs.getString("name"));
+        book.setAuthor(rs.getString("author"));
+        book.setLastReaded(rs.getInt("lastReaded"));
+        return book;
+    }
+
+    private static String toCsvRow(Book book) {
+        return book.getId() + "," + toCsvField(book.getName()) + "," + toCsvField(book.getAuthor()) + ","
+                + book.getLastReaded() + "\n";
+    }
+
+    private static String toCsvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
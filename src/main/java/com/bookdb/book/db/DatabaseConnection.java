@@ -1,15 +1,23 @@
 package com.bookdb.book.db;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
+/**
+ * Hands out connections from the application's pooled {@link DataSource} (HikariCP, configured through
+ * {@code spring.datasource.*}). Closing a connection returns it to the pool.
+ */
+@Component
 public class DatabaseConnection {
-    private static final String URL = "jdbc:postgresql://localhost:5432/postgres";
-    private static final String USER = "postgres";
-    private static final String PASSWORD = "1234";
 
-    public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+    @Autowired
+    private DataSource dataSource;
+
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
     }
 }
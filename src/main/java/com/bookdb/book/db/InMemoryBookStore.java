@@ -0,0 +1,269 @@
+package com.bookdb.book.db;
+
+import com.bookdb.book.entity.Book;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe in-memory storage for /v1 books.
+ * <p>
+ * Books are spread over lock-striped open-addressing tables keyed by the primitive {@code int} id, so
+ * get/put/delete are O(1) and never box the key. Reads are optimistic and only fall back to a read lock
+ * when they race with a writer on the same stripe. Ids come from an atomic sequence and are never reused.
+ */
+@Component
+public class InMemoryBookStore {
+
+    private static final int STRIPE_BITS = 4;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    public InMemoryBookStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public Book create(Book book) {
+        int id = sequence.incrementAndGet();
+        book.setId(id);
+        stripeFor(id).put(id, book, false);
+        return book;
+    }
+
+    public Book get(int id) {
+        if (id <= 0) {
+            return null;
+        }
+        return stripeFor(id).get(id);
+    }
+
+    /**
+     * Replaces the book stored under {@code id}.
+     *
+     * @return the previous book, or {@code null} if there was none (in which case nothing is stored)
+     */
+    public Book replace(int id, Book book) {
+        if (id <= 0) {
+            return null;
+        }
+        book.setId(id);
+        return stripeFor(id).put(id, book, true);
+    }
+
+    public Book remove(int id) {
+        if (id <= 0) {
+            return null;
+        }
+        return stripeFor(id).remove(id);
+    }
+
+    /**
+     * Returns a snapshot of all books ordered by id. Each stripe is copied atomically, the snapshot as a whole
+     * is not.
+     */
+    public List<Book> findAll() {
+        List<Book> books = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.copyTo(books);
+        }
+        books.sort(Comparator.comparingInt(Book::getId));
+        return books;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(int id) {
+        return stripes[hash(id) >>> (Integer.SIZE - STRIPE_BITS)];
+    }
+
+    private static int hash(int id) {
+        return id * 0x9E3779B9;
+    }
+
+    private static final class Stripe {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final StampedLock lock = new StampedLock();
+        private Table table = new Table(INITIAL_CAPACITY);
+        private int size;
+
+        Book get(int id) {
+            long stamp = lock.tryOptimisticRead();
+            Book book = table.get(id);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    book = table.get(id);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return book;
+        }
+
+        Book put(int id, Book book, boolean onlyIfPresent) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = table.find(id);
+                if (slot >= 0) {
+                    Book previous = table.values[slot];
+                    table.values[slot] = book;
+                    return previous;
+                }
+                if (onlyIfPresent) {
+                    return null;
+                }
+                if ((size + 1) * 2 > table.keys.length) {
+                    table = table.resize();
+                }
+                table.insert(id, book);
+                size++;
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        Book remove(int id) {
+            long stamp = lock.writeLock();
+            try {
+                Book removed = table.delete(id);
+                if (removed != null) {
+                    size--;
+                }
+                return removed;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void copyTo(List<Book> target) {
+            long stamp = lock.readLock();
+            try {
+                for (Book book : table.values) {
+                    if (book != null) {
+                        target.add(book);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Linear-probing table; key {@code 0} marks an empty slot since ids start at 1.
+     */
+    private static final class Table {
+
+        private final int[] keys;
+        private final Book[] values;
+        private final int mask;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new Book[capacity];
+            mask = capacity - 1;
+        }
+
+        private int indexOf(int id) {
+            int h = hash(id);
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        // Bounded by the table length so an optimistic reader racing a writer can never spin forever.
+        int find(int id) {
+            int index = indexOf(id);
+            for (int probes = 0; probes < keys.length; probes++) {
+                int key = keys[index];
+                if (key == id) {
+                    return index;
+                }
+                if (key == 0) {
+                    return -1;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        Book get(int id) {
+            int slot = find(id);
+            return slot >= 0 ? values[slot] : null;
+        }
+
+        void insert(int id, Book book) {
+            int index = indexOf(id);
+            while (keys[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = id;
+            values[index] = book;
+        }
+
+        Book delete(int id) {
+            int hole = find(id);
+            if (hole < 0) {
+                return null;
+            }
+            Book removed = values[hole];
+            keys[hole] = 0;
+            values[hole] = null;
+
+            // Backward-shift the rest of the cluster so lookups never need tombstones.
+            int index = hole;
+            while (true) {
+                index = (index + 1) & mask;
+                int key = keys[index];
+                if (key == 0) {
+                    return removed;
+                }
+                int home = indexOf(key);
+                boolean reachable = hole <= index
+                        ? home > hole && home <= index
+                        : home > hole || home <= index;
+                if (!reachable) {
+                    keys[hole] = key;
+                    values[hole] = values[index];
+                    keys[index] = 0;
+                    values[index] = null;
+                    hole = index;
+                }
+            }
+        }
+
+        Table resize() {
+            Table resized = new Table(keys.length * 2);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    resized.insert(keys[i], values[i]);
+                }
+            }
+            return resized;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.bookdb.book.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookBatchResult {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        NOT_FOUND,
+        FAILED
+    }
+
+    private int index;
+    private Integer id;
+    private Status status;
+    private String message;
+
+    public static BookBatchResult of(int index, Integer id, Status status) {
+        return new BookBatchResult(index, id, status, null);
+    }
+
+    public static BookBatchResult failed(int index, Integer id, String message) {
+        return new BookBatchResult(index, id, Status.FAILED, message);
+    }
+}
@@ -1,16 +1,26 @@
 package com.bookdb.book.entity;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Flat view of a {@link JsonBook}. On reads the JSON fields are extracted in SQL, so only the selected
+ * {@link Field}s are filled in and the others are left out of the response.
+ */
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class BookDTO {
-    private long id;
+    private Long id;
     private String name;
     private String author;
-    private double lastReaded;
+    private BigDecimal lastReaded;
     private String imageUrl;
 
-    public BookDTO(long id, String name, String author, double lastReaded, String imageUrl) {
+    public BookDTO(Long id, String name, String author, BigDecimal lastReaded, String imageUrl) {
         this.id = id;
         this.name = name;
         this.author = author;
@@ -18,5 +28,30 @@ public class BookDTO {
         this.imageUrl = imageUrl;
     }
 
-}
+    /**
+     * The columns a client can pick with {@code fields=}, named as in the response.
+     */
+    public enum Field {
+        ID("id"),
+        NAME("name"),
+        AUTHOR("author"),
+        LAST_READED("lastReaded"),
+        IMAGE_URL("imageUrl");
+
+        private final String param;
+
+        Field(String param) {
+            this.param = param;
+        }
 
+        public String param() {
+            return param;
+        }
+
+        public static Optional<Field> fromParam(String param) {
+            return Arrays.stream(values())
+                    .filter(field -> field.param.equals(param))
+                    .findFirst();
+        }
+    }
+}
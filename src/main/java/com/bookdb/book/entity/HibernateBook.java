@@ -5,9 +5,17 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+/**
+ * Kept in the second-level cache (region {@value #CACHE_REGION}, see hibernate-cache.conf). Writes through
+ * Hibernate keep it consistent; writes that bypass it must go through {@link com.bookdb.book.db.BookCacheEvictor}.
+ */
 @Entity
 @Table(name = "book", schema = "books")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateBook.CACHE_REGION)
 @Data
 @Getter
 @Setter
@@ -16,8 +24,15 @@ import lombok.*;
 @AllArgsConstructor
 public class HibernateBook {
 
+    public static final String CACHE_REGION = "hibernate-book";
+
+    /**
+     * Allocated in blocks of 50 from the sequence (pooled-lo, see Initdb8.sql), which keeps insert batching
+     * possible; IDENTITY would need a round-trip per row.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_id_seq")
+    @SequenceGenerator(name = "book_id_seq", schema = "books", sequenceName = "book_id_seq", allocationSize = 50)
     private long id;
 
     @NotNull(message = "Name cannot be null")
@@ -29,6 +44,13 @@ public class HibernateBook {
     private String author;
 
     @Min(value = 1, message = "lastReaded must be at least 1 kilo")
+    @Column(name = "lastreaded")
     private int lastReaded;
 
+    /**
+     * Bumped by every write. A PUT that sends it back only applies if the book was not changed in between.
+     */
+    @Version
+    private Long version;
+
 }
@@ -3,6 +3,8 @@ package com.bookdb.book.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 @Entity
 @Table(name = "image", schema = "books")
 @Data
@@ -16,4 +18,23 @@ public class ImageBook {
     @Column(name = "book_photo", columnDefinition = "BYTEA")
     private byte[] imageData;
 
+    @Column(name = "content_hash")
+    private String contentHash;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "uploaded_at")
+    private Instant uploadedAt;
+
+    /**
+     * Key in the configured {@link com.bookdb.book.image.BlobStore}; {@code null} when the bytes are in
+     * {@link #imageData}.
+     */
+    @Column(name = "storage_key")
+    private String storageKey;
+
+    @Column(name = "content_length")
+    private Long contentLength;
+
 }
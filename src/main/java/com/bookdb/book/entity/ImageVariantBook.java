@@ -0,0 +1,33 @@
+package com.bookdb.book.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A resized rendition of a {@link ImageBook} kept in BYTEA storage. {@code sourceHash} is the content hash of the
+ * original it was rendered from, so a variant of a replaced image is never served.
+ */
+@Entity
+@Table(name = "image_variant", schema = "books")
+@Data
+@Builder
+@RequiredArgsConstructor
+@AllArgsConstructor
+public class ImageVariantBook {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "image_id")
+    private Long imageId;
+
+    @Column(name = "source_hash")
+    private String sourceHash;
+
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "data", columnDefinition = "BYTEA")
+    private byte[] data;
+
+}
@@ -1,9 +1,10 @@
 package com.bookdb.book.entity;
 
+import com.bookdb.book.entity.conventer.ObjectNodeMutabilityPlan;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -11,11 +12,12 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.Mutability;
 import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
-@SuppressWarnings("CallToPrintStackTrace")
 @Entity
 @Table(name = "json_book", schema = "books")
 @Data
@@ -24,90 +26,83 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class JsonBook {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @JsonProperty("id")
     private Long id;
 
+    /**
+     * Parsed once when the row is loaded and serialized once at flush; Hibernate detects changes by comparing
+     * against a deep copy of the tree.
+     */
     @JdbcTypeCode(SqlTypes.JSON)
+    @Mutability(ObjectNodeMutabilityPlan.class)
     @Column(columnDefinition = "jsonb")
     @JsonIgnore
-    private String book;
+    private ObjectNode book;
 
     @Column(name = "image_url")
     @JsonProperty("imageUrl")
     private String imageUrl;
 
+    @Column(name = "image_hash")
+    @JsonIgnore
+    private String imageHash;
+
+    @Column(name = "image_content_type")
+    @JsonIgnore
+    private String imageContentType;
+
+    @Column(name = "image_uploaded_at")
+    @JsonIgnore
+    private Instant imageUploadedAt;
+
     @JsonProperty("name")
     public String getName() {
-        return getJsonFieldAsString();
+        JsonNode node = book == null ? null : book.get("name");
+        return node == null || node.isNull() ? null : node.asText();
     }
 
     @JsonProperty("author")
     public String getAuthor() {
-        return getJsonFieldAsStringAuthor();
+        JsonNode node = book == null ? null : book.get("author");
+        return node == null || node.isNull() ? null : node.asText();
     }
 
     @JsonProperty("lastReaded")
     public BigDecimal getlastReaded() {
-        return getJsonFieldAsBigDecimal();
+        JsonNode node = book == null ? null : book.get("lastReaded");
+        return node == null || node.isNull() ? null : node.decimalValue();
     }
 
     public void setName(String name) {
-        setJsonField("name", name);
-    }
-
-    public void setAuthor(String author) {
-        setJsonField("author", author);
-    }
-
-    public void setlastReaded(BigDecimal lastReaded) {
-        setJsonField("lastReaded", lastReaded);
-    }
-
-    private String getJsonFieldAsString() {
-        try {
-            JsonNode node = objectMapper.readTree(book);
-            return node.has("name") ? node.get("name").asText() : null;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+        if (name == null) {
+            document().remove("name");
+        } else {
+            document().put("name", name);
         }
     }
 
-    private String getJsonFieldAsStringAuthor() {
-        try {
-            JsonNode node = objectMapper.readTree(book);
-            return node.has("author") ? node.get("author").asText() : null;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+    public void setAuthor(String author) {
+        if (author == null) {
+            document().remove("author");
+        } else {
+            document().put("author", author);
         }
     }
 
-    private BigDecimal getJsonFieldAsBigDecimal() {
-        try {
-            JsonNode node = objectMapper.readTree(book);
-            return node.has("lastReaded") ? node.get("lastReaded").decimalValue() : null;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+    public void setlastReaded(BigDecimal lastReaded) {
+        if (lastReaded == null) {
+            document().remove("lastReaded");
+        } else {
+            document().put("lastReaded", lastReaded);
         }
     }
 
-    private void setJsonField(String fieldName, Object value) {
-        try {
-            ObjectNode node = book == null ? objectMapper.createObjectNode() : (ObjectNode) objectMapper.readTree(book);
-            if (value == null) {
-                node.remove(fieldName);
-            } else {
-                node.putPOJO(fieldName, value);
-            }
-            book = node.toString();
-        } catch (Exception e) {
-            e.printStackTrace();
+    private ObjectNode document() {
+        if (book == null) {
+            book = JsonNodeFactory.instance.objectNode();
         }
+        return book;
     }
 }
@@ -0,0 +1,16 @@
+package com.bookdb.book.entity.conventer;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.hibernate.type.descriptor.java.MutableMutabilityPlan;
+
+/**
+ * Snapshots JSON documents with {@link ObjectNode#deepCopy()}. Without it Hibernate copies a JSON attribute by
+ * serializing it to a string and parsing it back, once per loaded entity.
+ */
+public class ObjectNodeMutabilityPlan extends MutableMutabilityPlan<ObjectNode> {
+
+    @Override
+    protected ObjectNode deepCopyNotNull(ObjectNode value) {
+        return value.deepCopy();
+    }
+}
@@ -1,5 +1,7 @@
 package com.bookdb.book.filtering;
 
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import cz.jirutka.rsql.parser.ast.AndNode;
 import cz.jirutka.rsql.parser.ast.ComparisonNode;
 import cz.jirutka.rsql.parser.ast.OrNode;
@@ -7,11 +9,22 @@ import cz.jirutka.rsql.parser.ast.RSQLVisitor;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 public class CustomRsqlVisitor<T> implements RSQLVisitor<Specification<T>, Void> {
 
+    private static final Set<String> SUPPORTED_OPERATORS = Set.of(
+            "==", "!=", "=in=", "=out=", "=like=", "=gt=", "=ge=", "=lt=", "=le=", "=isnull=", "=notnull=");
+
+    private static final Set<String> ORDERING_OPERATORS = Set.of("=gt=", "=ge=", "=lt=", "=le=");
+
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
     private final Map<String, String> propertyPathMapper;
 
     public CustomRsqlVisitor(Map<String, String> propertyPathMapper) {
@@ -40,52 +53,200 @@ public class CustomRsqlVisitor<T> implements RSQLVisitor<Specification<T>, Void>
         String operator = node.getOperator().getSymbol();
         List<String> arguments = node.getArguments();
 
-        if (isJsonBField(selector)) {
-            return handleJsonBField(selector, operator, arguments);
+        if (!SUPPORTED_OPERATORS.contains(operator)) {
+            throw new UnsupportedOperationException("Unsupported operator: " + operator);
+        }
+
+        if (operator.equals("=isnull=") || operator.equals("=notnull=")) {
+            operator = nullCheck(operator, arguments);
         }
 
         String mappedSelector = propertyPathMapper.getOrDefault(selector, selector);
 
+        if (isJsonBField(mappedSelector)) {
+            return handleJsonBField(mappedSelector, operator, arguments);
+        }
+
+        String resolvedOperator = operator;
         return (root, _, builder) -> {
             Path<Object> path = getPath(root, mappedSelector);
-            return buildPredicate(path, operator, arguments, builder);
+            return buildPredicate(path, resolvedOperator, arguments, builder);
         };
     }
 
+    /**
+     * {@code =isnull=} and {@code =notnull=} take a single boolean, so {@code name=isnull=false} is the same as
+     * {@code name=notnull=true}.
+     */
+    private static String nullCheck(String operator, List<String> arguments) {
+        if (arguments.size() != 1) {
+            throw new InvalidFilterException(operator + " takes a single true or false");
+        }
+        boolean isNull = operator.equals("=isnull=") == (Boolean) convert(arguments.getFirst(), Boolean.class);
+        return isNull ? "=isnull=" : "=notnull=";
+    }
+
     private Specification<T> handleJsonBField(String selector, String operator, List<String> arguments) {
+        String[] jsonPath = selector.split("\\.");
+        Optional<JsonIndexedPath> indexedPath = jsonPath.length == 2
+                ? JsonIndexedPath.find(jsonPath[0], jsonPath[1])
+                : Optional.empty();
+
+        if (indexedPath.isPresent()) {
+            JsonIndexedPath path = indexedPath.get();
+            if (operator.equals("==") || operator.equals("=in=")) {
+                return handleJsonBContainment(path, arguments);
+            }
+            if (ORDERING_OPERATORS.contains(operator) || operator.equals("=like=")) {
+                return (root, _, builder) -> buildPredicate(
+                        builder.function(path.functionName(), path.valueType().javaType(), root.get(jsonPath[0])),
+                        operator, arguments, builder);
+            }
+        }
+
         return (root, _, builder) -> {
-            String[] jsonPath = selector.split("\\.");
             Expression<String> jsonExpression = root.get(jsonPath[0]);
 
             for (int i = 1; i < jsonPath.length; i++) {
                 jsonExpression = builder.function("jsonb_extract_path_text", String.class, jsonExpression, builder.literal(jsonPath[i]));
             }
 
+            // JSON values come out as text; compare numerically when every argument is a number.
+            if (ORDERING_OPERATORS.contains(operator) && arguments.stream().allMatch(CustomRsqlVisitor::isNumber)) {
+                return buildPredicate(jsonExpression.as(BigDecimal.class), operator, arguments, builder);
+            }
             return buildPredicate(jsonExpression, operator, arguments, builder);
         };
     }
 
+    /**
+     * Equality on an indexed path becomes {@code book @> '{"author":"..."}'}, which the {@code jsonb_path_ops}
+     * GIN index serves. {@code =in=} is an OR of containments, each still an index condition.
+     */
+    private Specification<T> handleJsonBContainment(JsonIndexedPath path, List<String> arguments) {
+        List<String> documents = arguments.stream()
+                .map(argument -> toContainmentDocument(path, argument))
+                .toList();
+
+        return (root, _, builder) -> {
+            Expression<Object> column = root.get(path.column());
+            Predicate[] predicates = documents.stream()
+                    .map(document -> builder.isTrue(builder.function(
+                            JsonIndexedPath.CONTAINMENT_FUNCTION, Boolean.class, column, builder.literal(document))))
+                    .toArray(Predicate[]::new);
+            return predicates.length == 1 ? predicates[0] : builder.or(predicates);
+        };
+    }
+
+    private static String toContainmentDocument(JsonIndexedPath path, String argument) {
+        ObjectNode document = JSON.objectNode();
+        if (path.valueType() == JsonIndexedPath.ValueType.NUMERIC) {
+            document.put(path.field(), (BigDecimal) convert(argument, BigDecimal.class));
+        } else {
+            document.put(path.field(), argument);
+        }
+        return document.toString();
+    }
+
     private boolean isJsonBField(String selector) {
         return selector.contains(".");
     }
 
+    /**
+     * Arguments are converted to the Java type of the attribute, so numbers compare as numbers and the
+     * predicate can use a B-tree index on the column.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
     private Predicate buildPredicate(Expression<?> path, String operator, List<String> arguments, CriteriaBuilder builder) {
+        Class<?> type = path.getJavaType();
         String argument = arguments.getFirst();
 
         return switch (operator) {
-            case "==" -> builder.equal(path, argument);
-            case "!=" -> builder.notEqual(path, argument);
-            case "=in=" -> path.in(arguments);
-            case "=out=" -> builder.not(path.in(arguments));
-            case "=like=" -> builder.like(path.as(String.class), "%" + argument + "%");
-            case "=gt=" -> builder.greaterThan(path.as(String.class), argument);
-            case "=lt=" -> builder.lessThan(path.as(String.class), argument);
+            case "==" -> builder.equal(path, convert(argument, type));
+            case "!=" -> builder.notEqual(path, convert(argument, type));
+            case "=in=" -> path.in(convertAll(arguments, type));
+            case "=out=" -> builder.not(path.in(convertAll(arguments, type)));
+            case "=like=" -> builder.like(asText(path), toLikePattern(argument), '\\');
+            case "=gt=" -> builder.greaterThan((Expression<Comparable>) path, (Comparable) convert(argument, type));
+            case "=ge=" -> builder.greaterThanOrEqualTo((Expression<Comparable>) path, (Comparable) convert(argument, type));
+            case "=lt=" -> builder.lessThan((Expression<Comparable>) path, (Comparable) convert(argument, type));
+            case "=le=" -> builder.lessThanOrEqualTo((Expression<Comparable>) path, (Comparable) convert(argument, type));
             case "=isnull=" -> builder.isNull(path);
             case "=notnull=" -> builder.isNotNull(path);
             default -> throw new UnsupportedOperationException("Unsupported operator: " + operator);
         };
     }
 
+    // A redundant cast would stop Postgres from matching the column or indexed expression.
+    @SuppressWarnings("unchecked")
+    private static Expression<String> asText(Expression<?> path) {
+        return path.getJavaType() == String.class ? (Expression<String>) path : path.as(String.class);
+    }
+
+    /**
+     * {@code *} is the wildcard. A value that only ends with {@code *} becomes a prefix match that an index
+     * with {@code text_pattern_ops} can serve; a value without any wildcard keeps the old contains semantics.
+     */
+    private static String toLikePattern(String argument) {
+        String escaped = argument.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        if (escaped.indexOf('*') < 0) {
+            return "%" + escaped + "%";
+        }
+        return escaped.replace('*', '%');
+    }
+
+    private static List<Object> convertAll(List<String> arguments, Class<?> type) {
+        return arguments.stream().map(argument -> convert(argument, type)).toList();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convert(String argument, Class<?> type) {
+        try {
+            if (type == Integer.class || type == int.class) {
+                return Integer.valueOf(argument);
+            }
+            if (type == Long.class || type == long.class) {
+                return Long.valueOf(argument);
+            }
+            if (type == Double.class || type == double.class) {
+                return Double.valueOf(argument);
+            }
+            if (type == Float.class || type == float.class) {
+                return Float.valueOf(argument);
+            }
+            if (type == Short.class || type == short.class) {
+                return Short.valueOf(argument);
+            }
+            if (type == BigDecimal.class) {
+                return new BigDecimal(argument);
+            }
+            if (type == BigInteger.class) {
+                return new BigInteger(argument);
+            }
+            if (type == Boolean.class || type == boolean.class) {
+                if (!"true".equalsIgnoreCase(argument) && !"false".equalsIgnoreCase(argument)) {
+                    throw new IllegalArgumentException(argument);
+                }
+                return Boolean.valueOf(argument);
+            }
+            if (type.isEnum()) {
+                return Enum.valueOf((Class<Enum>) type, argument);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFilterException("Invalid value '" + argument + "' for type " + type.getSimpleName(), e);
+        }
+        return argument;
+    }
+
+    private static boolean isNumber(String argument) {
+        try {
+            new BigDecimal(argument);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     private Path<Object> getPath(Root<T> root, String selector) {
         if (selector.contains(".")) {
             String[] parts = selector.split("\\.");
@@ -0,0 +1,16 @@
+package com.bookdb.book.filtering;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidFilterException extends RuntimeException {
+
+    public InvalidFilterException(String message) {
+        super(message);
+    }
+
+    public InvalidFilterException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
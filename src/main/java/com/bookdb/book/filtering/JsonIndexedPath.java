@@ -0,0 +1,80 @@
+package com.bookdb.book.filtering;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Registry of the hot {@code books.json_book} document fields that have an expression index. Each entry
+ * yields a Hibernate function ({@link #functionName()}) that renders exactly the indexed expression, so range and
+ * prefix predicates built from it are index scans. Equality goes through the {@code jsonb_path_ops} GIN index on
+ * the whole document.
+ * <p>
+ * Keep in sync with Initdb3.sql, which creates the indexes.
+ */
+public enum JsonIndexedPath {
+    NAME("book", "name", ValueType.TEXT),
+    AUTHOR("book", "author", ValueType.TEXT),
+    LAST_READED("book", "lastReaded", ValueType.NUMERIC);
+
+    public static final String CONTAINMENT_FUNCTION = "jsonb_contains";
+
+    public enum ValueType {
+        TEXT(String.class),
+        NUMERIC(BigDecimal.class);
+
+        private final Class<?> javaType;
+
+        ValueType(Class<?> javaType) {
+            this.javaType = javaType;
+        }
+
+        public Class<?> javaType() {
+            return javaType;
+        }
+    }
+
+    private final String column;
+    private final String field;
+    private final ValueType valueType;
+
+    JsonIndexedPath(String column, String field, ValueType valueType) {
+        this.column = column;
+        this.field = field;
+        this.valueType = valueType;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    public String field() {
+        return field;
+    }
+
+    public ValueType valueType() {
+        return valueType;
+    }
+
+    public String functionName() {
+        return "json_" + column + "_" + field;
+    }
+
+    /**
+     * Hibernate function pattern, {@code ?1} is the JSONB column.
+     */
+    public String functionPattern() {
+        return expression("?1");
+    }
+
+    private String expression(String columnReference) {
+        String text = "(" + columnReference + "->>'" + field + "')";
+        return valueType == ValueType.NUMERIC ? "CAST(" + text + " AS numeric)" : text;
+    }
+
+    public static Optional<JsonIndexedPath> find(String column, String field) {
+        return Arrays.stream(values())
+                .filter(path -> path.column.equals(column) && path.field.equals(field))
+                .findFirst();
+    }
+}
@@ -0,0 +1,33 @@
+package com.bookdb.book.filtering;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the JSONB operators Hibernate has no syntax for: {@code jsonb_contains(doc, json)} renders the
+ * {@code @>} operator (a plain function call could not use the GIN index), plus one function per
+ * {@link JsonIndexedPath}. Picked up through META-INF/services.
+ */
+public class JsonbFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry().registerPattern(
+                JsonIndexedPath.CONTAINMENT_FUNCTION,
+                "(?1 @> CAST(?2 AS jsonb))",
+                types.resolve(StandardBasicTypes.BOOLEAN));
+
+        for (JsonIndexedPath path : JsonIndexedPath.values()) {
+            functionContributions.getFunctionRegistry().registerPattern(
+                    path.functionName(),
+                    path.functionPattern(),
+                    path.valueType() == JsonIndexedPath.ValueType.NUMERIC
+                            ? types.resolve(StandardBasicTypes.BIG_DECIMAL)
+                            : types.resolve(StandardBasicTypes.STRING));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.bookdb.book.filtering;
+
+import cz.jirutka.rsql.parser.RSQLParser;
+import cz.jirutka.rsql.parser.RSQLParserException;
+import cz.jirutka.rsql.parser.ast.ComparisonNode;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import cz.jirutka.rsql.parser.ast.LogicalNode;
+import cz.jirutka.rsql.parser.ast.Node;
+import cz.jirutka.rsql.parser.ast.RSQLOperators;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns RSQL filter strings into {@link Specification}s through {@link CustomRsqlVisitor} and keeps the parsed
+ * AST and the resulting specification in a bounded LRU cache, keyed by entity and normalized filter. Repeated
+ * filters skip parsing and visiting entirely.
+ */
+@Component
+public class RsqlSpecificationCache {
+
+    private static final Set<ComparisonOperator> OPERATORS = operators();
+
+    private final RSQLParser parser = new RSQLParser(OPERATORS);
+    private final Map<String, CompiledFilter> cache;
+
+    public RsqlSpecificationCache(@Value("${bookdb.rsql.cache-size:500}") int maxEntries) {
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledFilter> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * @param propertyPathMapper selectors accepted in the filter, mapped to their entity property paths
+     * @throws InvalidFilterException if the filter cannot be parsed or uses an unknown selector or operator
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Specification<T> getSpecification(Class<T> entityType, String filter,
+                                                 Map<String, String> propertyPathMapper) {
+        String normalized = normalize(filter);
+        String key = entityType.getName() + '|' + normalized;
+
+        CompiledFilter compiled = cache.get(key);
+        if (compiled == null) {
+            compiled = compile(normalized, propertyPathMapper);
+            cache.put(key, compiled);
+        }
+        return (Specification<T>) compiled.specification();
+    }
+
+    public static String normalize(String filter) {
+        return filter == null ? "" : filter.strip();
+    }
+
+    private CompiledFilter compile(String filter, Map<String, String> propertyPathMapper) {
+        Node ast;
+        try {
+            ast = parser.parse(filter);
+        } catch (RSQLParserException e) {
+            throw new InvalidFilterException("Invalid filter: " + filter, e);
+        }
+
+        Set<String> selectors = new HashSet<>();
+        collectSelectors(ast, selectors);
+        selectors.removeAll(propertyPathMapper.keySet());
+        if (!selectors.isEmpty()) {
+            throw new InvalidFilterException("Unknown filter properties: " + selectors);
+        }
+
+        try {
+            return new CompiledFilter(ast, ast.accept(new CustomRsqlVisitor<>(propertyPathMapper)));
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            throw new InvalidFilterException(e.getMessage(), e);
+        }
+    }
+
+    private static void collectSelectors(Node node, Set<String> selectors) {
+        if (node instanceof ComparisonNode comparison) {
+            selectors.add(comparison.getSelector());
+        } else if (node instanceof LogicalNode logical) {
+            for (Node child : logical.getChildren()) {
+                collectSelectors(child, selectors);
+            }
+        }
+    }
+
+    private static Set<ComparisonOperator> operators() {
+        Set<ComparisonOperator> operators = new HashSet<>(RSQLOperators.defaultOperators());
+        operators.add(new ComparisonOperator("=like="));
+        operators.add(new ComparisonOperator("=isnull="));
+        operators.add(new ComparisonOperator("=notnull="));
+        return operators;
+    }
+
+    private record CompiledFilter(Node ast, Specification<?> specification) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.bookdb.book.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * External storage for /v3 image bytes, selected with {@code bookdb.image.storage}. {@code books.image} then only
+ * keeps the metadata and the key. Implementations stream in both directions and never buffer a whole image.
+ */
+public interface BlobStore {
+
+    void write(String key, InputStream content, long size, String contentType) throws IOException;
+
+    /**
+     * @return the content, or {@code null} if nothing is stored under {@code key}; the caller closes the stream
+     */
+    InputStream read(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Deletes every blob whose key starts with {@code prefix}.
+     */
+    void deleteAll(String prefix) throws IOException;
+}
@@ -0,0 +1,10 @@
+package com.bookdb.book.image;
+
+import java.time.Instant;
+
+/**
+ * An image held by {@link ImageCache}. {@code contentType}, {@code eTag} and {@code lastModified} may be
+ * {@code null} when the backing store does not keep them.
+ */
+public record CachedImage(byte[] data, String contentType, String eTag, Instant lastModified) {
+}
@@ -0,0 +1,368 @@
+package com.bookdb.book.image;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Two-tier cache for book cover images, keyed by the caller (e.g. {@code v4/42}, or {@code v4/42/w200.png} for a
+ * variant).
+ * <p>
+ * The heap tier is an LRU bounded by the total number of image bytes ({@code bookdb.image-cache.heap-size}).
+ * Every cached image is also written to the disk tier ({@code bookdb.image-cache.disk-size}), so an image evicted
+ * from heap is read back from its file (and put back in heap) instead of going to the database or S3. Files are
+ * written by a background writer, images still waiting for it are served from memory; if it falls more than a
+ * heap's worth of bytes behind, new images stay in heap only. The disk tier is cleared on startup, it only lives as
+ * long as the invalidations it has seen. Images above {@code bookdb.image-cache.max-object-size} are never cached.
+ * <p>
+ * A load that races with {@link #invalidate(String)} must not put stale bytes back: callers take
+ * {@link #version()} before reading from the backing store and {@link #put} drops the image if its key (or one it
+ * is cached below) was invalidated since. Invalidation stamps are kept per stripe of keys, so invalidating one
+ * image doesn't drop the loads of others.
+ * <p>
+ * No file I/O happens while a tier's lock is held.
+ */
+@Component
+public class ImageCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageCache.class);
+
+    private static final int VERSION_STRIPES = 1024;
+
+    private final long heapCapacity;
+    private final long diskCapacity;
+    private final long maxObjectSize;
+    private final Path directory;
+
+    private final ReentrantLock heapLock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedImage> heap = new LinkedHashMap<>(16, 0.75f, true);
+    private long heapBytes;
+
+    // The disk tier: written files, and images queued for the writer.
+    private final ReentrantLock diskLock = new ReentrantLock();
+    private final LinkedHashMap<String, DiskEntry> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CachedImage> pendingWrites = new HashMap<>();
+    private long diskBytes;
+    private long pendingBytes;
+
+    private final ExecutorService diskWriter =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("image-cache-writer").factory());
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLongArray invalidatedAt = new AtomicLongArray(VERSION_STRIPES);
+    private final AtomicLong fileSequence = new AtomicLong();
+
+    private final Counter heapHits;
+    private final Counter heapMisses;
+    private final Counter diskHits;
+    private final Counter diskMisses;
+    private final Counter heapEvictions;
+    private final Counter diskEvictions;
+
+    public ImageCache(@Value("${bookdb.image-cache.heap-size:64MB}") DataSize heapSize,
+                      @Value("${bookdb.image-cache.disk-size:512MB}") DataSize diskSize,
+                      @Value("${bookdb.image-cache.max-object-size:2MB}") DataSize maxObjectSize,
+                      @Value("${bookdb.image-cache.directory:${java.io.tmpdir}/bookdb-image-cache}") Path directory,
+                      MeterRegistry meterRegistry) throws IOException {
+        this.heapCapacity = heapSize.toBytes();
+        this.diskCapacity = diskSize.toBytes();
+        this.maxObjectSize = maxObjectSize.toBytes();
+        this.directory = directory;
+
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*.img")) {
+            leftovers.forEach(ImageCache::deleteQuietly);
+        }
+
+        heapHits = requests(meterRegistry, "heap", "hit");
+        heapMisses = requests(meterRegistry, "heap", "miss");
+        diskHits = requests(meterRegistry, "disk", "hit");
+        diskMisses = requests(meterRegistry, "disk", "miss");
+        heapEvictions = evictions(meterRegistry, "heap");
+        diskEvictions = evictions(meterRegistry, "disk");
+    }
+
+    /**
+     * Registers the size gauges; they read this cache, so they are bound once it is constructed.
+     */
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder("bookdb.image.cache.size", this, ImageCache::heapBytes)
+                .tag("tier", "heap").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("bookdb.image.cache.size", this, ImageCache::diskBytes)
+                .tag("tier", "disk").baseUnit("bytes").register(meterRegistry);
+    }
+
+    public long maxObjectSize() {
+        return maxObjectSize;
+    }
+
+    public long version() {
+        return clock.get();
+    }
+
+    /**
+     * @return the cached image, or {@code null} if neither tier has it
+     */
+    public CachedImage get(String key) {
+        long version = version();
+        CachedImage image;
+        heapLock.lock();
+        try {
+            image = heap.get(key);
+        } finally {
+            heapLock.unlock();
+        }
+        if (image != null) {
+            heapHits.increment();
+            return image;
+        }
+        heapMisses.increment();
+
+        image = readFromDisk(key);
+        if (image == null) {
+            diskMisses.increment();
+            return null;
+        }
+        diskHits.increment();
+        putHeap(key, image, version);
+        return image;
+    }
+
+    /**
+     * Caches {@code image} unless it is too large or {@code key} was invalidated after {@code version} was taken.
+     */
+    public void put(String key, CachedImage image, long version) {
+        if (image.data() == null || image.data().length > maxObjectSize) {
+            return;
+        }
+        putHeap(key, image, version);
+        queueDiskWrite(key, image, version);
+    }
+
+    /**
+     * Removes {@code key} and everything cached below it, i.e. the variants under {@code key + "/"}.
+     */
+    public void invalidate(String key) {
+        long stamp = clock.incrementAndGet();
+        invalidatedAt.accumulateAndGet(stripe(key), stamp, Math::max);
+
+        String children = key + "/";
+        heapLock.lock();
+        try {
+            Iterator<Map.Entry<String, CachedImage>> entries = heap.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, CachedImage> entry = entries.next();
+                if (entry.getKey().equals(key) || entry.getKey().startsWith(children)) {
+                    heapBytes -= entry.getValue().data().length;
+                    entries.remove();
+                }
+            }
+        } finally {
+            heapLock.unlock();
+        }
+
+        List<Path> removed = new ArrayList<>();
+        diskLock.lock();
+        try {
+            // Queued writes still run, the writer drops them once it finds them gone from here.
+            pendingWrites.keySet().removeIf(pending -> pending.equals(key) || pending.startsWith(children));
+            Iterator<Map.Entry<String, DiskEntry>> entries = disk.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, DiskEntry> entry = entries.next();
+                if (entry.getKey().equals(key) || entry.getKey().startsWith(children)) {
+                    diskBytes -= entry.getValue().size();
+                    removed.add(entry.getValue().path());
+                    entries.remove();
+                }
+            }
+        } finally {
+            diskLock.unlock();
+        }
+        removed.forEach(ImageCache::deleteQuietly);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        diskWriter.shutdownNow();
+    }
+
+    /**
+     * Whether {@code key}, or a key it is cached below, was invalidated after {@code version} was taken. Keys
+     * sharing a stripe may drop each other's loads, which only costs a reload.
+     */
+    private boolean invalidatedSince(String key, long version) {
+        for (int slash = key.indexOf('/'); slash >= 0; slash = key.indexOf('/', slash + 1)) {
+            if (invalidatedAt.get(stripe(key.substring(0, slash))) > version) {
+                return true;
+            }
+        }
+        return invalidatedAt.get(stripe(key)) > version;
+    }
+
+    private static int stripe(String key) {
+        return Math.floorMod(key.hashCode(), VERSION_STRIPES);
+    }
+
+    private void putHeap(String key, CachedImage image, long version) {
+        heapLock.lock();
+        try {
+            if (invalidatedSince(key, version)) {
+                return;
+            }
+            CachedImage previous = heap.put(key, image);
+            heapBytes += image.data().length - (previous == null ? 0 : previous.data().length);
+
+            Iterator<Map.Entry<String, CachedImage>> eldest = heap.entrySet().iterator();
+            while (heapBytes > heapCapacity && eldest.hasNext()) {
+                heapBytes -= eldest.next().getValue().data().length;
+                eldest.remove();
+                heapEvictions.increment();
+            }
+        } finally {
+            heapLock.unlock();
+        }
+    }
+
+    private void queueDiskWrite(String key, CachedImage image, long version) {
+        diskLock.lock();
+        try {
+            if (invalidatedSince(key, version) || pendingBytes + image.data().length > heapCapacity) {
+                return;
+            }
+            pendingWrites.put(key, image);
+            pendingBytes += image.data().length;
+        } finally {
+            diskLock.unlock();
+        }
+        diskWriter.execute(() -> writeToDisk(key, image));
+    }
+
+    private void writeToDisk(String key, CachedImage image) {
+        Path path = directory.resolve(fileSequence.incrementAndGet() + ".img");
+        boolean written;
+        try {
+            Files.write(path, image.data());
+            written = true;
+        } catch (IOException e) {
+            logger.warn("Failed to write image {} to the disk cache", key, e);
+            written = false;
+        }
+
+        List<Path> removed = new ArrayList<>();
+        diskLock.lock();
+        try {
+            pendingBytes -= image.data().length;
+            // Gone if the key was invalidated or put again meanwhile.
+            if (!pendingWrites.remove(key, image) || !written) {
+                removed.add(path);
+                return;
+            }
+            DiskEntry previous = disk.put(key, new DiskEntry(path, image.data().length, image.contentType(), image.eTag(),
+                    image.lastModified()));
+            diskBytes += image.data().length;
+            if (previous != null) {
+                diskBytes -= previous.size();
+                removed.add(previous.path());
+            }
+
+            Iterator<Map.Entry<String, DiskEntry>> eldest = disk.entrySet().iterator();
+            while (diskBytes > diskCapacity && eldest.hasNext()) {
+                DiskEntry evicted = eldest.next().getValue();
+                eldest.remove();
+                diskBytes -= evicted.size();
+                removed.add(evicted.path());
+                diskEvictions.increment();
+            }
+        } finally {
+            diskLock.unlock();
+            removed.forEach(ImageCache::deleteQuietly);
+        }
+    }
+
+    private CachedImage readFromDisk(String key) {
+        DiskEntry entry;
+        diskLock.lock();
+        try {
+            CachedImage pending = pendingWrites.get(key);
+            if (pending != null) {
+                return pending;
+            }
+            entry = disk.get(key);
+        } finally {
+            diskLock.unlock();
+        }
+        if (entry == null) {
+            return null;
+        }
+        // The file may be evicted concurrently, that is a miss.
+        try {
+            byte[] data = Files.readAllBytes(entry.path());
+            return new CachedImage(data, entry.contentType(), entry.eTag(), entry.lastModified());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("Failed to read image {} from the disk cache", key, e);
+            return null;
+        }
+    }
+
+    private long heapBytes() {
+        heapLock.lock();
+        try {
+            return heapBytes;
+        } finally {
+            heapLock.unlock();
+        }
+    }
+
+    private long diskBytes() {
+        diskLock.lock();
+        try {
+            return diskBytes;
+        } finally {
+            diskLock.unlock();
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete {} from the disk cache", path, e);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("bookdb.image.cache.requests")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictions(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("bookdb.image.cache.evictions")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    private record DiskEntry(Path path, long size, String contentType, String eTag, Instant lastModified) {
+    }
+}
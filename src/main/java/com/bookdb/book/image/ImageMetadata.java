@@ -0,0 +1,16 @@
+package com.bookdb.book.image;
+
+import java.time.Instant;
+
+/**
+ * Validators of a stored image, loaded without the image bytes. All values are {@code null} for images uploaded
+ * before the hash was recorded.
+ */
+public interface ImageMetadata {
+
+    String getContentHash();
+
+    String getContentType();
+
+    Instant getUploadedAt();
+}
@@ -0,0 +1,104 @@
+package com.bookdb.book.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Conditional GET support for the image endpoints. The ETag is the SHA-256 of the image, recorded at upload time,
+ * so a revalidation only needs the stored hash and never the bytes.
+ */
+@Component
+public class ImageValidators {
+
+    @Value("${bookdb.image.cache-max-age:60s}")
+    private Duration maxAge;
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static String sha256(byte[] data) {
+        return HexFormat.of().formatHex(sha256().digest(data));
+    }
+
+    public static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String eTag(String contentHash) {
+        return contentHash == null ? null : '"' + contentHash + '"';
+    }
+
+    /**
+     * Variants are derived from the original, so they change exactly when it does.
+     */
+    public static String eTag(String contentHash, ImageVariant variant) {
+        return contentHash == null ? null : '"' + contentHash + '-' + variant.name() + '"';
+    }
+
+    /**
+     * Evaluates {@code If-None-Match} / {@code If-Modified-Since} against the stored validators. Unlike
+     * {@link WebRequest#checkNotModified} it writes nothing to the response, {@link #notModified} builds the 304.
+     */
+    public boolean isNotModified(WebRequest request, String eTag, Instant lastModified) {
+        HttpHeaders conditions = new HttpHeaders();
+        for (String name : List.of(HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE)) {
+            String[] values = request.getHeaderValues(name);
+            if (values != null) {
+                conditions.addAll(name, List.of(values));
+            }
+        }
+        try {
+            // If-None-Match takes precedence and compares weakly, as for any GET.
+            List<String> ifNoneMatch = conditions.getIfNoneMatch();
+            if (!ifNoneMatch.isEmpty()) {
+                return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*")
+                        || eTag != null && opaqueTag(tag).equals(opaqueTag(eTag)));
+            }
+            // HTTP dates have whole seconds.
+            long ifModifiedSince = conditions.getIfModifiedSince();
+            return ifModifiedSince >= 0 && lastModified != null
+                    && lastModified.getEpochSecond() * 1000 <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            // Malformed validators are ignored, the client gets the full image.
+            return false;
+        }
+    }
+
+    private static String opaqueTag(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    public <T> ResponseEntity<T> notModified(String eTag, Instant lastModified) {
+        return new ResponseEntity<>(headers(eTag, lastModified), HttpStatus.NOT_MODIFIED);
+    }
+
+    public HttpHeaders headers(String eTag, Instant lastModified) {
+        HttpHeaders headers = new HttpHeaders();
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+        if (lastModified != null) {
+            headers.setLastModified(lastModified);
+        }
+        // Clients may reuse a cover for max-age, after that they revalidate with the ETag.
+        headers.setCacheControl(CacheControl.maxAge(maxAge).cachePublic().mustRevalidate());
+        return headers;
+    }
+}
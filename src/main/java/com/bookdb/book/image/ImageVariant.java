@@ -0,0 +1,26 @@
+package com.bookdb.book.image;
+
+/**
+ * A resized rendition of an image requested with {@code ?w=&h=&format=}. A missing dimension follows the aspect
+ * ratio of the original; {@code format} is an {@link javax.imageio.ImageIO} format name.
+ */
+public record ImageVariant(Integer width, Integer height, String format) {
+
+    /**
+     * Stable name of the variant, used in storage and cache keys, e.g. {@code w200-h300.jpeg}.
+     */
+    public String name() {
+        StringBuilder name = new StringBuilder();
+        if (width != null) {
+            name.append('w').append(width);
+        }
+        if (height != null) {
+            name.append(name.isEmpty() ? "" : "-").append('h').append(height);
+        }
+        return format == null ? name.toString() : name.append('.').append(format).toString();
+    }
+
+    public ImageVariant withFormat(String format) {
+        return new ImageVariant(width, height, format);
+    }
+}
@@ -0,0 +1,201 @@
+package com.bookdb.book.image;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Renders {@link ImageVariant}s of cover images.
+ * <p>
+ * Rendering is CPU and memory heavy, so it runs on {@code bookdb.image.variants.threads} workers with a queue of
+ * {@code bookdb.image.variants.queue-capacity}; when both are full the request fails with 503 instead of piling
+ * up. Concurrent requests for the same variant share one computation. Sources are decoded with subsampling, at
+ * most twice the target size, so a thumbnail of a large cover never needs the full bitmap in heap.
+ */
+@Component
+public class ImageVariants {
+
+    // Formats whose ImageIO writers cannot store an alpha channel.
+    private static final Set<String> OPAQUE_FORMATS = Set.of("jpeg", "bmp", "wbmp");
+
+    private static final String DEFAULT_FORMAT = "png";
+
+    private final int maxDimension;
+    private final long maxDecodedPixels;
+    private final ExecutorService workers;
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    public ImageVariants(@Value("${bookdb.image.variants.threads:2}") int threads,
+                         @Value("${bookdb.image.variants.queue-capacity:64}") int queueCapacity,
+                         @Value("${bookdb.image.variants.max-dimension:2048}") int maxDimension,
+                         @Value("${bookdb.image.variants.max-decoded-pixels:40000000}") long maxDecodedPixels) {
+        this.maxDimension = maxDimension;
+        this.maxDecodedPixels = maxDecodedPixels;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "image-variant-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the requested variant, or {@code null} if no parameter was given and the original is wanted
+     * @throws ResponseStatusException 400 on an invalid size or unknown format
+     */
+    public ImageVariant parse(Integer width, Integer height, String format) {
+        if (width == null && height == null && format == null) {
+            return null;
+        }
+        checkDimension("w", width);
+        checkDimension("h", height);
+        if (format == null) {
+            return new ImageVariant(width, height, null);
+        }
+        String normalized = format.toLowerCase(Locale.ROOT).equals("jpg") ? "jpeg" : format.toLowerCase(Locale.ROOT);
+        if (!ImageIO.getImageWritersByFormatName(normalized).hasNext()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported image format: " + format);
+        }
+        return new ImageVariant(width, height, normalized);
+    }
+
+    /**
+     * Fills in the format of the original when the client did not ask for one.
+     */
+    public ImageVariant resolve(ImageVariant variant, String originalContentType) {
+        if (variant.format() != null) {
+            return variant;
+        }
+        if (originalContentType != null) {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(originalContentType);
+            if (writers.hasNext()) {
+                String format = writers.next().getOriginatingProvider().getFormatNames()[0].toLowerCase(Locale.ROOT);
+                return variant.withFormat(format.equals("jpg") ? "jpeg" : format);
+            }
+        }
+        return variant.withFormat(DEFAULT_FORMAT);
+    }
+
+    public static String contentType(ImageVariant variant) {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(variant.format());
+        return writers.hasNext() ? writers.next().getOriginatingProvider().getMIMETypes()[0] : null;
+    }
+
+    /**
+     * Runs {@code loader} on the worker pool unless a load for {@code key} is already running, in which case its
+     * result is shared. The loader renders and stores a missing variant; callers read stored variants themselves
+     * first, so serving one never waits for a worker.
+     */
+    public CompletableFuture<byte[]> getOrCreate(String key, Callable<byte[]> loader) {
+        CompletableFuture<byte[]> created = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            return running.copy();
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    created.complete(loader.call());
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many image variants in progress"));
+        }
+        return created.copy();
+    }
+
+    /**
+     * Decodes {@code original} and encodes it scaled to fit {@code variant}; images are never scaled up.
+     */
+    public byte[] render(InputStream original, ImageVariant variant) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Image format cannot be resized");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                Dimension target = fit(sourceWidth, sourceHeight, variant);
+
+                int subsampling = Math.max(1, Math.min(sourceWidth / (2 * target.width),
+                        sourceHeight / (2 * target.height)));
+                if ((long) (sourceWidth / subsampling) * (sourceHeight / subsampling) > maxDecodedPixels) {
+                    throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Image is too large to resize");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage source = reader.read(0, param);
+
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                if (!ImageIO.write(scale(source, target, variant.format()), variant.format(), output)) {
+                    throw new IOException("No ImageIO writer for " + variant.format());
+                }
+                return output.toByteArray();
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static Dimension fit(int sourceWidth, int sourceHeight, ImageVariant variant) {
+        double scale = Math.min(
+                variant.width() == null ? Double.MAX_VALUE : (double) variant.width() / sourceWidth,
+                variant.height() == null ? Double.MAX_VALUE : (double) variant.height() / sourceHeight);
+        scale = Math.min(scale, 1.0);
+        return new Dimension(Math.max(1, (int) Math.round(sourceWidth * scale)),
+                Math.max(1, (int) Math.round(sourceHeight * scale)));
+    }
+
+    private static BufferedImage scale(BufferedImage source, Dimension target, String format) {
+        boolean alpha = source.getColorModel().hasAlpha() && !OPAQUE_FORMATS.contains(format);
+        BufferedImage scaled = new BufferedImage(target.width, target.height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, target.width, target.height, alpha ? null : Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private void checkDimension(String name, Integer value) {
+        if (value != null && (value < 1 || value > maxDimension)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    name + " must be between 1 and " + maxDimension);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
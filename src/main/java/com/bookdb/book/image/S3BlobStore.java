@@ -0,0 +1,79 @@
+package com.bookdb.book.image;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.InputStream;
+
+/**
+ * Stores blobs in the {@code aws.s3.bucket-name} bucket under {@code bookdb.image.s3.prefix}.
+ */
+@Component
+@ConditionalOnProperty(name = "bookdb.image.storage", havingValue = "s3")
+public class S3BlobStore implements BlobStore {
+
+    @Autowired
+    private S3Client s3Client;
+
+    @Value("${aws.s3.bucket-name}")
+    private String bucket;
+
+    @Value("${bookdb.image.s3.prefix:book-blobs/}")
+    private String prefix;
+
+    @Override
+    public void write(String key, InputStream content, long size, String contentType) {
+        s3Client.putObject(PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(prefix + key)
+                .contentType(contentType)
+                .contentLength(size)
+                .build(), RequestBody.fromInputStream(content, size));
+    }
+
+    @Override
+    public InputStream read(String key) {
+        try {
+            return s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(prefix + key)
+                    .build());
+        } catch (NoSuchKeyException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder()
+                .bucket(bucket)
+                .key(prefix + key)
+                .build());
+    }
+
+    @Override
+    public void deleteAll(String keyPrefix) {
+        ListObjectsV2Request listRequest = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix + keyPrefix)
+                .build();
+        for (ListObjectsV2Response page : s3Client.listObjectsV2Paginator(listRequest)) {
+            if (page.contents().isEmpty()) {
+                continue;
+            }
+            s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(bucket)
+                    .delete(Delete.builder()
+                            .objects(page.contents().stream()
+                                    .map(object -> ObjectIdentifier.builder().key(object.key()).build())
+                                    .toList())
+                            .build())
+                    .build());
+        }
+    }
+}
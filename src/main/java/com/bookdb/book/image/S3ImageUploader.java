@@ -0,0 +1,187 @@
+package com.bookdb.book.image;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Uploads images to S3 without holding the whole file in heap or blocking the calling thread.
+ * <p>
+ * Files below {@code aws.s3.multipart-threshold} are streamed in a single PUT. Larger files go through the
+ * multipart API: parts of {@code aws.s3.part-size} are read one after another and uploaded in parallel, with at
+ * most {@code aws.s3.upload-parallelism} parts of one upload in memory at a time. A failed upload is aborted so
+ * S3 does not keep the orphaned parts.
+ * <p>
+ * The S3 calls run on the async client's event loop. Every upload reads the (spooled) file on a virtual thread of
+ * its own, so a multipart upload blocking its reader until the last part is started can't starve other uploads;
+ * how many uploads run at once is up to the S3 bulkhead.
+ */
+@Component
+public class S3ImageUploader {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3ImageUploader.class);
+
+    // S3 rejects multipart parts below 5 MB, except the last one.
+    private static final long MIN_PART_SIZE = DataSize.ofMegabytes(5).toBytes();
+
+    @Autowired
+    private S3AsyncClient s3AsyncClient;
+
+    @Value("${aws.s3.multipart-threshold:16MB}")
+    private DataSize multipartThreshold;
+
+    @Value("${aws.s3.part-size:8MB}")
+    private DataSize partSize;
+
+    private final int parallelism;
+    private final ExecutorService readers =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("s3-upload-reader-", 0).factory());
+
+    public S3ImageUploader(@Value("${aws.s3.upload-parallelism:4}") int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the hex SHA-256 of the uploaded content, computed while it is streamed
+     */
+    public CompletableFuture<String> upload(String bucket, String key, MultipartFile file) {
+        MessageDigest digest = ImageValidators.sha256();
+        if (file.getSize() < multipartThreshold.toBytes()) {
+            return uploadSingle(bucket, key, file, digest);
+        }
+        return s3AsyncClient.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(file.getContentType())
+                        .build())
+                .thenCompose(created -> uploadParts(bucket, key, created.uploadId(), file, digest)
+                        .thenCompose(parts -> s3AsyncClient.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .uploadId(created.uploadId())
+                                .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                                .build()))
+                        .whenComplete((_, e) -> {
+                            if (e != null) {
+                                abort(bucket, key, created.uploadId());
+                            }
+                        }))
+                .thenApply(_ -> ImageValidators.hex(digest));
+    }
+
+    private CompletableFuture<String> uploadSingle(String bucket, String key, MultipartFile file,
+                                                   MessageDigest digest) {
+        InputStream content;
+        try {
+            content = new DigestInputStream(file.getInputStream(), digest);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(file.getContentType())
+                .contentLength(file.getSize())
+                .build();
+        return s3AsyncClient.putObject(request, AsyncRequestBody.fromInputStream(content, file.getSize(), readers))
+                .whenComplete((_, _) -> closeQuietly(content))
+                .thenApply(_ -> ImageValidators.hex(digest));
+    }
+
+    private CompletableFuture<List<CompletedPart>> uploadParts(String bucket, String key, String uploadId,
+                                                               MultipartFile file, MessageDigest digest) {
+        return CompletableFuture
+                .supplyAsync(() -> readParts(bucket, key, uploadId, file, digest), readers)
+                .thenCompose(parts -> CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                        .thenApply(_ -> parts.stream().map(CompletableFuture::join).toList()));
+    }
+
+    /**
+     * Reads the file part by part and starts each part upload, blocking while {@code parallelism} parts are
+     * still in flight. Stops reading as soon as a part has failed.
+     */
+    private List<CompletableFuture<CompletedPart>> readParts(String bucket, String key, String uploadId,
+                                                             MultipartFile file, MessageDigest digest) {
+        int bufferSize = (int) Math.max(partSize.toBytes(), MIN_PART_SIZE);
+        Semaphore inFlight = new Semaphore(parallelism);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        try (InputStream content = new DigestInputStream(file.getInputStream(), digest)) {
+            for (int partNumber = 1; ; partNumber++) {
+                byte[] buffer = content.readNBytes(bufferSize);
+                if (buffer.length == 0 && partNumber > 1) {
+                    break;
+                }
+                inFlight.acquire();
+                if (parts.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break;
+                }
+                parts.add(uploadPart(bucket, key, uploadId, partNumber, buffer)
+                        .whenComplete((_, _) -> inFlight.release()));
+                if (buffer.length < bufferSize) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read upload of " + key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Upload of " + key + " was interrupted");
+        }
+        return parts;
+    }
+
+    private CompletableFuture<CompletedPart> uploadPart(String bucket, String key, String uploadId, int partNumber,
+                                                        byte[] content) {
+        return s3AsyncClient.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) content.length)
+                        .build(), AsyncRequestBody.fromBytes(content))
+                .thenApply(response -> CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+    }
+
+    private void abort(String bucket, String key, String uploadId) {
+        s3AsyncClient.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .build())
+                .whenComplete((_, e) -> {
+                    if (e != null) {
+                        logger.error("Failed to abort multipart upload {} of {}", uploadId, key, e);
+                    }
+                });
+    }
+
+    private static void closeQuietly(InputStream content) {
+        try {
+            content.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close upload stream", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        readers.shutdownNow();
+    }
+}
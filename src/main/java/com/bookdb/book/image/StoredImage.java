@@ -0,0 +1,12 @@
+package com.bookdb.book.image;
+
+/**
+ * {@link ImageMetadata} of a /v3 image plus where its bytes live: {@code storageKey} is {@code null} when they
+ * are in the {@code book_photo} BYTEA column.
+ */
+public interface StoredImage extends ImageMetadata {
+
+    String getStorageKey();
+
+    Long getContentLength();
+}
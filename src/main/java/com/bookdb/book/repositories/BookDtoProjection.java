@@ -0,0 +1,65 @@
+package com.bookdb.book.repositories;
+
+import com.bookdb.book.controller.pagination.TupleProjection;
+import com.bookdb.book.entity.BookDTO;
+import com.bookdb.book.entity.JsonBook;
+import com.bookdb.book.filtering.JsonIndexedPath;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the chosen {@link BookDTO.Field}s of a {@link JsonBook}. JSON fields are extracted with the same
+ * {@code book->>'field'} expressions the indexes from {@link JsonIndexedPath} are built on, so only those values
+ * leave the database and the document is never parsed in Java.
+ */
+public class BookDtoProjection implements TupleProjection<JsonBook, BookDTO> {
+
+    private final Set<BookDTO.Field> fields;
+
+    public BookDtoProjection(Set<BookDTO.Field> fields) {
+        this.fields = fields.isEmpty() ? EnumSet.allOf(BookDTO.Field.class) : EnumSet.copyOf(fields);
+    }
+
+    @Override
+    public List<Selection<?>> select(Root<JsonBook> root, CriteriaBuilder criteriaBuilder) {
+        return fields.stream()
+                .<Selection<?>>map(field -> expression(field, root, criteriaBuilder).alias(field.param()))
+                .toList();
+    }
+
+    @Override
+    public BookDTO map(Tuple tuple) {
+        return new BookDTO(
+                get(tuple, BookDTO.Field.ID, Long.class),
+                get(tuple, BookDTO.Field.NAME, String.class),
+                get(tuple, BookDTO.Field.AUTHOR, String.class),
+                get(tuple, BookDTO.Field.LAST_READED, BigDecimal.class),
+                get(tuple, BookDTO.Field.IMAGE_URL, String.class));
+    }
+
+    private <T> T get(Tuple tuple, BookDTO.Field field, Class<T> type) {
+        return fields.contains(field) ? tuple.get(field.param(), type) : null;
+    }
+
+    private static Expression<?> expression(BookDTO.Field field, Root<JsonBook> root, CriteriaBuilder criteriaBuilder) {
+        return switch (field) {
+            case ID -> root.get("id");
+            case NAME -> json(JsonIndexedPath.NAME, root, criteriaBuilder);
+            case AUTHOR -> json(JsonIndexedPath.AUTHOR, root, criteriaBuilder);
+            case LAST_READED -> json(JsonIndexedPath.LAST_READED, root, criteriaBuilder);
+            case IMAGE_URL -> root.get("imageUrl");
+        };
+    }
+
+    private static Expression<?> json(JsonIndexedPath path, Root<JsonBook> root, CriteriaBuilder criteriaBuilder) {
+        return criteriaBuilder.function(path.functionName(), path.valueType().javaType(), root.get(path.column()));
+    }
+}
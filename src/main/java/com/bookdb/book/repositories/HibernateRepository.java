@@ -3,9 +3,39 @@ package com.bookdb.book.repositories;
 import com.bookdb.book.entity.HibernateBook;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 
 @Repository
 public interface HibernateRepository extends JpaRepository<HibernateBook, Long>, JpaSpecificationExecutor<HibernateBook> {
+
+    /**
+     * Updates the book and returns the new row in a single statement. Empty if there is no book {@code id}, or
+     * if {@code version} is given and no longer current.
+     * <p>
+     * Hibernate treats this as a query, so it does not invalidate its caches; callers run it through
+     * {@link com.bookdb.book.db.BookCacheEvictor#writeLocked}.
+     */
+    @Transactional
+    @Query(value = "UPDATE books.book SET name = :name, author = :author, lastreaded = :lastReaded, " +
+            "version = version + 1 " +
+            "WHERE id = :id AND (CAST(:version AS BIGINT) IS NULL OR version = CAST(:version AS BIGINT)) " +
+            "RETURNING id, name, author, lastreaded, version", nativeQuery = true)
+    Optional<HibernateBook> updateReturning(@Param("id") long id, @Param("name") String name,
+                                            @Param("author") String author, @Param("lastReaded") int lastReaded,
+                                            @Param("version") Long version);
+
+    /**
+     * @return the number of deleted rows, 0 if there is no book {@code id}
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM HibernateBook b WHERE b.id = :id")
+    int deleteBookById(@Param("id") long id);
 }
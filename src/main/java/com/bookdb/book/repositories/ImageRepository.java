@@ -1,10 +1,27 @@
 package com.bookdb.book.repositories;
 
 import com.bookdb.book.entity.ImageBook;
+import com.bookdb.book.image.ImageMetadata;
+import com.bookdb.book.image.StoredImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 
 @Repository
 public interface ImageRepository extends JpaRepository<ImageBook, Long> {
+
+    @Query("SELECT i.contentHash AS contentHash, i.contentType AS contentType, i.uploadedAt AS uploadedAt " +
+            "FROM ImageBook i WHERE i.id = :id")
+    Optional<ImageMetadata> findMetadataById(@Param("id") Long id);
+
+    @Query("SELECT i.contentHash AS contentHash, i.contentType AS contentType, i.uploadedAt AS uploadedAt, " +
+            "i.storageKey AS storageKey, i.contentLength AS contentLength FROM ImageBook i WHERE i.id = :id")
+    Optional<StoredImage> findStoredImageById(@Param("id") Long id);
+
+    @Query("SELECT i.imageData FROM ImageBook i WHERE i.id = :id")
+    Optional<byte[]> findImageDataById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.bookdb.book.repositories;
+
+import com.bookdb.book.entity.ImageVariantBook;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariantBook, Long> {
+
+    @Query("SELECT v.data FROM ImageVariantBook v " +
+            "WHERE v.imageId = :imageId AND v.sourceHash = :sourceHash AND v.name = :name")
+    Optional<byte[]> findData(@Param("imageId") Long imageId, @Param("sourceHash") String sourceHash,
+                              @Param("name") String name);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImageVariantBook v WHERE v.imageId = :imageId")
+    int deleteByImageId(@Param("imageId") Long imageId);
+}
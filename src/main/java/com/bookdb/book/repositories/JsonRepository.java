@@ -1,25 +1,42 @@
 package com.bookdb.book.repositories;
 
+import com.bookdb.book.entity.BookDTO;
 import com.bookdb.book.entity.JsonBook;
+import com.bookdb.book.image.ImageMetadata;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
-public interface JsonRepository extends JpaRepository<JsonBook, Long>, JpaSpecificationExecutor<JsonBook> {
-    @Query(value = "SELECT p.id, " +
-            "jsonb_extract_path_text(p.book, 'name') AS name, " +
-            "CAST(jsonb_extract_path_text(p.book, 'author') AS INTEGER) AS author, " +
-            "CAST(jsonb_extract_path_text(p.book, 'lastReaded') AS DOUBLE PRECISION) AS lastReaded " +
-            "FROM jsonBook p WHERE p.id = :id", nativeQuery = true)
-    List<Object[]> findParentWithChildDetails(@Param("id") Long id);
+public interface JsonRepository extends JpaRepository<JsonBook, Long>, JpaSpecificationExecutor<JsonBook>,
+        JsonRepositoryCustom {
+    // The indexed ->> expressions from JsonIndexedPath, registered as functions by JsonbFunctionContributor
+    @Query("SELECT new com.bookdb.book.entity.BookDTO(b.id, json_book_name(b.book), json_book_author(b.book), " +
+            "json_book_lastReaded(b.book), b.imageUrl) FROM JsonBook b WHERE b.id = :id")
+    Optional<BookDTO> findBookDtoById(@Param("id") Long id);
 
-    @Query(value = "SELECT * FROM books.json_book jc WHERE CAST(jc.book->>'author' AS INTEGER) = :author", nativeQuery = true)
+    // Containment predicates, served by the jsonb_path_ops GIN index from Initdb3.sql
+    @Query(value = "SELECT * FROM books.json_book jc WHERE jc.book @> jsonb_build_object('author', CAST(:author AS text))", nativeQuery = true)
     List<JsonBook> findByAuthor(@Param("author") String author);
 
-    @Query(value = "SELECT * FROM books.json_book jc WHERE CAST(jc.book->>'lastReaded' AS DOUBLE PRECISION) = :lastReaded", nativeQuery = true)
+    @Query(value = "SELECT * FROM books.json_book jc WHERE jc.book @> jsonb_build_object('lastReaded', CAST(:lastReaded AS numeric))", nativeQuery = true)
     List<JsonBook> findBylastReaded(@Param("lastReaded") BigDecimal lastReaded);
+
+    @Query("SELECT b.imageHash AS contentHash, b.imageContentType AS contentType, b.imageUploadedAt AS uploadedAt " +
+            "FROM JsonBook b WHERE b.id = :id")
+    Optional<ImageMetadata> findImageMetadataById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE JsonBook b SET b.imageHash = :hash, b.imageContentType = :contentType, " +
+            "b.imageUploadedAt = :uploadedAt WHERE b.id = :id")
+    int updateImageMetadata(@Param("id") Long id, @Param("hash") String hash,
+                            @Param("contentType") String contentType, @Param("uploadedAt") Instant uploadedAt);
 }
@@ -0,0 +1,14 @@
+package com.bookdb.book.repositories;
+
+import com.bookdb.book.entity.BookDTO;
+
+import java.util.Optional;
+import java.util.Set;
+
+public interface JsonRepositoryCustom {
+
+    /**
+     * Reads only {@code fields} of the book (all of them when empty), see {@link BookDtoProjection}.
+     */
+    Optional<BookDTO> findBookDtoById(Long id, Set<BookDTO.Field> fields);
+}
@@ -0,0 +1,33 @@
+package com.bookdb.book.repositories;
+
+import com.bookdb.book.entity.BookDTO;
+import com.bookdb.book.entity.JsonBook;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+import java.util.Optional;
+import java.util.Set;
+
+public class JsonRepositoryCustomImpl implements JsonRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<BookDTO> findBookDtoById(Long id, Set<BookDTO.Field> fields) {
+        BookDtoProjection projection = new BookDtoProjection(fields);
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<JsonBook> root = query.from(JsonBook.class);
+        query.multiselect(projection.select(root, criteriaBuilder))
+                .where(criteriaBuilder.equal(root.get("id"), id));
+        return entityManager.createQuery(query)
+                .getResultStream()
+                .findFirst()
+                .map(projection::map);
+    }
+}
@@ -0,0 +1,9 @@
+    -- JSONB indexes for /v4, keep in sync with com.bookdb.book.filtering.JsonIndexedPath
+
+    -- Equality filters are rendered as containment (book @> '{"author":"..."}'), served by this GIN index
+    CREATE INDEX IF NOT EXISTS json_book_book_path_idx ON "books"."json_book" USING GIN (book jsonb_path_ops);
+
+    -- Expression indexes for range and prefix filters; the expressions must match JsonIndexedPath exactly
+    CREATE INDEX IF NOT EXISTS json_book_name_idx ON "books"."json_book" (((book->>'name')) text_pattern_ops);
+    CREATE INDEX IF NOT EXISTS json_book_author_idx ON "books"."json_book" (((book->>'author')) text_pattern_ops);
+    CREATE INDEX IF NOT EXISTS json_book_lastreaded_idx ON "books"."json_book" ((CAST((book->>'lastReaded') AS numeric)));
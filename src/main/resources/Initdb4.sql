@@ -0,0 +1,11 @@
+    -- Image validators for conditional GETs: SHA-256 of the content, recorded at upload time
+
+    ALTER TABLE "books"."image"
+        ADD COLUMN IF NOT EXISTS content_hash CHAR(64),
+        ADD COLUMN IF NOT EXISTS content_type VARCHAR(100),
+        ADD COLUMN IF NOT EXISTS uploaded_at TIMESTAMP WITH TIME ZONE;
+
+    ALTER TABLE "books"."json_book"
+        ADD COLUMN IF NOT EXISTS image_hash CHAR(64),
+        ADD COLUMN IF NOT EXISTS image_content_type VARCHAR(100),
+        ADD COLUMN IF NOT EXISTS image_uploaded_at TIMESTAMP WITH TIME ZONE;
@@ -0,0 +1,5 @@
+    -- /v3 images in an external blob store (bookdb.image.storage=filesystem|s3) keep only metadata in books.image
+
+    ALTER TABLE "books"."image"
+        ADD COLUMN IF NOT EXISTS storage_key VARCHAR(255),
+        ADD COLUMN IF NOT EXISTS content_length BIGINT;
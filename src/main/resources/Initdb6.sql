@@ -0,0 +1,14 @@
+    -- Resized /v3 cover variants (?w=&h=&format=) in BYTEA storage, keyed by the hash of their original
+
+    CREATE TABLE IF NOT EXISTS "books"."image_variant"
+    (
+        id BIGSERIAL PRIMARY KEY,
+        image_id BIGINT NOT NULL,
+        source_hash CHAR(64) NOT NULL,
+        name VARCHAR(64) NOT NULL,
+        data BYTEA NOT NULL,
+        UNIQUE (image_id, source_hash, name),
+        FOREIGN KEY (image_id)
+        REFERENCES books.book (id)
+        ON DELETE CASCADE
+    );
@@ -0,0 +1,4 @@
+    -- Optimistic locking for /v3 updates: every write to books.book bumps the version
+
+    ALTER TABLE "books"."book"
+        ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+    -- HibernateBook ids come from books.book_id_seq in blocks of 50 (pooled-lo), so the sequence has to step by 50.
+    -- The /v2 batch and COPY inserts reserve ids in the same blocks. Single-row inserts (/v2, /v5) take their id
+    -- from the column default and skip the other 49 ids of its block, so consecutive single rows are 50 ids apart.
+
+    ALTER SEQUENCE "books"."book_id_seq" INCREMENT BY 50;
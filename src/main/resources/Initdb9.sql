@@ -0,0 +1,10 @@
+    -- Indexes for /v3 listings. They live in their own script because databases created before them never re-run Initdb1.sql.
+
+    -- (sort key, id): keyset pagination seeks with a row comparison (key, id) > (value, id), which these take as their index condition
+    CREATE INDEX IF NOT EXISTS book_name_id_idx ON "books"."book" (name, id);
+    CREATE INDEX IF NOT EXISTS book_author_id_idx ON "books"."book" (author, id);
+    CREATE INDEX IF NOT EXISTS book_lastreaded_id_idx ON "books"."book" (lastReaded, id);
+
+    -- Prefix LIKE filters (=like=abc*) can only use an index built with text_pattern_ops
+    CREATE INDEX IF NOT EXISTS book_name_pattern_idx ON "books"."book" (name text_pattern_ops);
+    CREATE INDEX IF NOT EXISTS book_author_pattern_idx ON "books"."book" (author text_pattern_ops);
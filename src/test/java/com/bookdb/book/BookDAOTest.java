@@ -0,0 +1,96 @@
+package com.bookdb.book;
+
+import com.bookdb.book.db.BookDAO;
+import com.bookdb.book.db.DatabaseConnection;
+import com.bookdb.book.entity.Book;
+import com.bookdb.book.entity.BookBatchResult;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the /v2 batch inserts against an embedded Postgres of the docker-compose version, initialized with the
+ * Initdb scripts.
+ */
+public class BookDAOTest {
+
+    private static EmbeddedPostgres postgres;
+
+    private static BookDAO bookDAO;
+
+    @BeforeAll
+    static void startDatabase() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            for (int i = 1; new ClassPathResource("Initdb" + i + ".sql").exists(); i++) {
+                statement.execute(new ClassPathResource("Initdb" + i + ".sql").getContentAsString(StandardCharsets.UTF_8));
+            }
+        }
+
+        DatabaseConnection databaseConnection = new DatabaseConnection();
+        ReflectionTestUtils.setField(databaseConnection, "dataSource", postgres.getPostgresDatabase());
+        bookDAO = new BookDAO();
+        ReflectionTestUtils.setField(bookDAO, "databaseConnection", databaseConnection);
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    public void testCopyBooksReturnsTheIdOfEachRow() {
+        List<Book> books = books("Copy", 2000);
+
+        List<BookBatchResult> results = bookDAO.copyBooks(books);
+
+        assertEquals(books.size(), results.size());
+        for (int i = 0; i < books.size(); i++) {
+            assertEquals(BookBatchResult.Status.CREATED, results.get(i).getStatus());
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals(books.get(i).getId(), results.get(i).getId());
+            assertEquals("Copy " + i, bookDAO.getBookById(books.get(i).getId()).getName());
+        }
+    }
+
+    @Test
+    public void testBatchInsertsAllocateIdsInBlocks() {
+        List<Book> batch = books("Block Batch", 120);
+        List<Book> copied = books("Block Copy", 120);
+
+        bookDAO.createBooks(batch);
+        bookDAO.copyBooks(copied);
+
+        // One nextval per 50 rows hands out consecutive ids, so both runs are dense.
+        for (List<Book> books : List.of(batch, copied)) {
+            for (int i = 0; i < books.size(); i++) {
+                assertEquals(books.get(0).getId() + i, books.get(i).getId());
+                assertEquals(books.get(i).getName(), bookDAO.getBookById(books.get(i).getId()).getName());
+            }
+        }
+    }
+
+    private static List<Book> books(String prefix, int count) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            books.add(new Book(0, prefix + " " + i, prefix + " Author", i % 7 + 1));
+        }
+        return books;
+    }
+}
@@ -0,0 +1,61 @@
+package com.bookdb.book;
+
+import com.bookdb.book.bulkhead.Bulkhead;
+import com.bookdb.book.bulkhead.BulkheadInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadTest {
+
+    @Test
+    public void testRejectsWhenSaturated() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BulkheadInterceptor interceptor = new BulkheadInterceptor(
+                new Bulkhead("postgres", 1, Duration.ofMillis(10), registry));
+
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), null));
+
+        MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest(), rejectedResponse, null));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals("1", rejectedResponse.getHeader("Retry-After"));
+        assertEquals(1, registry.get("bookdb.bulkhead.rejections").tag("name", "postgres").counter().count());
+
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), null));
+        assertEquals(3, registry.get("bookdb.bulkhead.wait").tag("name", "postgres").timer().count());
+    }
+
+    @Test
+    public void testAsyncRequestHoldsPermitUntilComplete() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BulkheadInterceptor interceptor = new BulkheadInterceptor(
+                new Bulkhead("s3", 1, Duration.ofMillis(10), registry));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        request.startAsync();
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertEquals(1.0, registry.get("bookdb.bulkhead.active").tag("name", "s3").gauge().value());
+        assertThrows(ResponseStatusException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), null));
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(0.0, registry.get("bookdb.bulkhead.active").tag("name", "s3").gauge().value());
+    }
+}
@@ -0,0 +1,39 @@
+package com.bookdb.book;
+
+import com.bookdb.book.image.FileSystemBlobStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemBlobStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testWriteReadOverwriteAndDelete() throws IOException {
+        FileSystemBlobStore store = new FileSystemBlobStore(directory);
+
+        store.write("v3/1", new ByteArrayInputStream(new byte[]{1, 2, 3}), 3, "image/png");
+        store.write("v3/1", new ByteArrayInputStream(new byte[]{4, 5}), 2, "image/png");
+        try (InputStream content = store.read("v3/1")) {
+            assertArrayEquals(new byte[]{4, 5}, content.readAllBytes());
+        }
+
+        store.delete("v3/1");
+        assertNull(store.read("v3/1"));
+    }
+
+    @Test
+    public void testKeysCannotEscapeTheDirectory() throws IOException {
+        FileSystemBlobStore store = new FileSystemBlobStore(directory.resolve("store"));
+
+        assertThrows(IllegalArgumentException.class, () -> store.read("../outside"));
+    }
+}
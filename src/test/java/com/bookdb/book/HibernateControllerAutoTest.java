@@ -1,6 +1,15 @@
 package com.bookdb.book;
 
+import com.bookdb.book.controller.pagination.KeysetSlice;
+import com.bookdb.book.entity.Book;
 import com.bookdb.book.entity.HibernateBook;
+import com.bookdb.book.image.ImageCache;
+import com.bookdb.book.image.ImageVariants;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,11 +34,20 @@ import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
 import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -41,6 +59,15 @@ public class HibernateControllerAutoTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ImageVariants imageVariants;
+
+    @Autowired
+    private ImageCache imageCache;
+
     private static final String BUCKET_NAME = "bookstorage";
     private static final String S3_ENDPOINT = "http://127.0.0.1:4566";
     private static final Region REGION = Region.EU_NORTH_1;
@@ -107,6 +134,37 @@ public class HibernateControllerAutoTest {
         assertTrue(response.getBody().containsKey("lastReaded"));
     }
 
+    @Test
+    public void testCreateHibernateBooksInBulk() {
+        List<HibernateBook> books = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            books.add(createBook("Bulk Book " + i, "Bulk Author", i + 1));
+        }
+
+        ResponseEntity<List<HibernateBook>> response = restTemplate.exchange(
+                "/v3/api/books/bulk",
+                HttpMethod.POST,
+                new HttpEntity<>(books),
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(120, response.getBody().stream().map(HibernateBook::getId).distinct().count());
+
+        books.get(1).setName("x");
+        ResponseEntity<Map<String, String>> invalid = restTemplate.exchange(
+                "/v3/api/books/bulk",
+                HttpMethod.POST,
+                new HttpEntity<>(books),
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+        assertNotNull(invalid.getBody());
+        assertTrue(invalid.getBody().containsKey("[1].name"));
+    }
+
     @Test
     public void testDeleteHibernateBook() {
         HibernateBook book = createBook("ToDelete", "Author", 3);
@@ -128,6 +186,70 @@ public class HibernateControllerAutoTest {
         assertEquals("Book deleted successfully", deleteResponse.getBody());
     }
 
+    @Test
+    public void testUpdateHibernateBookWithVersion() {
+        ResponseEntity<HibernateBook> createResponse = createBookRequest(createBook("Versioned", "Author", 3));
+        assertNotNull(createResponse.getBody());
+        HibernateBook created = createResponse.getBody();
+        assertNotNull(created.getVersion());
+
+        HibernateBook change = createBook("Versioned v2", "Author", 4);
+        change.setVersion(created.getVersion());
+        ResponseEntity<HibernateBook> updated = restTemplate.exchange(
+                "/v3/api/books/" + created.getId(), HttpMethod.PUT, new HttpEntity<>(change), HibernateBook.class);
+        assertEquals(HttpStatus.OK, updated.getStatusCode());
+        assertNotNull(updated.getBody());
+        assertEquals("Versioned v2", updated.getBody().getName());
+        assertEquals(created.getVersion() + 1, updated.getBody().getVersion());
+
+        // The same, now stale, version must not overwrite the first update.
+        ResponseEntity<String> conflict = restTemplate.exchange(
+                "/v3/api/books/" + created.getId(), HttpMethod.PUT, new HttpEntity<>(change), String.class);
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatusCode());
+
+        ResponseEntity<String> missing = restTemplate.exchange(
+                "/v3/api/books/" + Integer.MAX_VALUE, HttpMethod.PUT, new HttpEntity<>(change), String.class);
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+
+        ResponseEntity<String> missingDelete = restTemplate.exchange(
+                "/v3/api/books/" + Integer.MAX_VALUE, HttpMethod.DELETE, null, String.class);
+        assertEquals(HttpStatus.NOT_FOUND, missingDelete.getStatusCode());
+    }
+
+    @Test
+    public void testReadDuringUpdateDoesNotRecacheOldRow() {
+        ResponseEntity<HibernateBook> createResponse = createBookRequest(createBook("Contended", "Author", 1));
+        assertNotNull(createResponse.getBody());
+        long bookId = createResponse.getBody().getId();
+        restTemplate.getForEntity("/v3/api/books/" + bookId, HibernateBook.class);
+
+        // A concurrent read whose snapshot was taken before the update commits still sees the old row. It loads the
+        // book only after the update has returned, when the cache entry has already been evicted.
+        EntityManager reader = entityManagerFactory.createEntityManager();
+        try {
+            reader.getTransaction().begin();
+            reader.unwrap(Session.class).doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ");
+                    statement.execute("SELECT 1");
+                }
+            });
+
+            ResponseEntity<HibernateBook> updated = restTemplate.exchange("/v3/api/books/" + bookId, HttpMethod.PUT,
+                    new HttpEntity<>(createBook("Contended v2", "Author", 2)), HibernateBook.class);
+            assertEquals(HttpStatus.OK, updated.getStatusCode());
+
+            assertEquals("Contended", reader.find(HibernateBook.class, bookId).getName());
+            reader.getTransaction().commit();
+        } finally {
+            reader.close();
+        }
+
+        ResponseEntity<HibernateBook> read = restTemplate.getForEntity("/v3/api/books/" + bookId, HibernateBook.class);
+        assertNotNull(read.getBody());
+        assertEquals("Contended v2", read.getBody().getName());
+    }
+
     @Test
     public void testUploadImageBook() throws IOException {
         HibernateBook book = createBook("ImageTest", "Author", 3);
@@ -150,6 +272,128 @@ public class HibernateControllerAutoTest {
         );
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
+
+        ResponseEntity<byte[]> imageResponse = restTemplate.getForEntity(
+                "/v3/api/books/" + bookId + "/image", byte[].class);
+        assertEquals(HttpStatus.OK, imageResponse.getStatusCode());
+        assertArrayEquals(imageBytes, imageResponse.getBody());
+        String eTag = imageResponse.getHeaders().getETag();
+        assertNotNull(eTag);
+        assertNotEquals(-1, imageResponse.getHeaders().getLastModified());
+
+        HttpHeaders conditionalHeaders = new HttpHeaders();
+        conditionalHeaders.setIfNoneMatch(eTag);
+        ResponseEntity<byte[]> notModified = restTemplate.exchange(
+                "/v3/api/books/" + bookId + "/image",
+                HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders),
+                byte[].class
+        );
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertNull(notModified.getBody());
+        assertEquals(List.of(eTag), notModified.getHeaders().get(HttpHeaders.ETAG));
+        assertEquals(1, notModified.getHeaders().get(HttpHeaders.LAST_MODIFIED).size());
+
+        HttpHeaders weakHeaders = new HttpHeaders();
+        weakHeaders.setIfNoneMatch("W/" + eTag);
+        ResponseEntity<byte[]> weakNotModified = restTemplate.exchange(
+                "/v3/api/books/" + bookId + "/image",
+                HttpMethod.GET,
+                new HttpEntity<>(weakHeaders),
+                byte[].class
+        );
+        assertEquals(HttpStatus.NOT_MODIFIED, weakNotModified.getStatusCode());
+
+        HttpHeaders dateHeaders = new HttpHeaders();
+        dateHeaders.setIfModifiedSince(imageResponse.getHeaders().getLastModified());
+        ResponseEntity<byte[]> notModifiedSince = restTemplate.exchange(
+                "/v3/api/books/" + bookId + "/image",
+                HttpMethod.GET,
+                new HttpEntity<>(dateHeaders),
+                byte[].class
+        );
+        assertEquals(HttpStatus.NOT_MODIFIED, notModifiedSince.getStatusCode());
+
+        dateHeaders.setIfModifiedSince(imageResponse.getHeaders().getLastModified() - 1000);
+        ResponseEntity<byte[]> modifiedSince = restTemplate.exchange(
+                "/v3/api/books/" + bookId + "/image",
+                HttpMethod.GET,
+                new HttpEntity<>(dateHeaders),
+                byte[].class
+        );
+        assertEquals(HttpStatus.OK, modifiedSince.getStatusCode());
+        assertArrayEquals(imageBytes, modifiedSince.getBody());
+    }
+
+    @Test
+    public void testGetBookByIdIsServedFromSecondLevelCache() {
+        ResponseEntity<HibernateBook> createResponse = createBookRequest(createBook("Cached Book", "Cached Author", 2));
+        assertNotNull(createResponse.getBody());
+        long bookId = createResponse.getBody().getId();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        restTemplate.getForEntity("/v3/api/books/" + bookId, HibernateBook.class);
+        long hits = statistics.getSecondLevelCacheHitCount();
+        ResponseEntity<HibernateBook> cached = restTemplate.getForEntity("/v3/api/books/" + bookId, HibernateBook.class);
+        assertEquals(HttpStatus.OK, cached.getStatusCode());
+        assertEquals(hits + 1, statistics.getSecondLevelCacheHitCount());
+
+        // A /v2 write goes around Hibernate and has to evict the cached entity.
+        Book update = new Book((int) bookId, "Updated Book", "Cached Author", 3);
+        restTemplate.put("/v2/api/books/" + bookId, update);
+        ResponseEntity<HibernateBook> updated = restTemplate.getForEntity("/v3/api/books/" + bookId, HibernateBook.class);
+        assertNotNull(updated.getBody());
+        assertEquals("Updated Book", updated.getBody().getName());
+    }
+
+    @Test
+    public void testGetImageBookVariant() throws IOException {
+        HibernateBook book = createBook("Variant Book", "Variant Author", 1);
+        ResponseEntity<HibernateBook> createResponse = createBookRequest(book);
+        assertNotNull(createResponse.getBody());
+        Long bookId = createResponse.getBody().getId();
+
+        ByteArrayOutputStream original = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "png", original);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                "/v3/api/books/" + bookId + "/image",
+                new HttpEntity<>(getMultiValueMap(original.toByteArray()), headers),
+                String.class
+        );
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+
+        ResponseEntity<byte[]> variantResponse = restTemplate.getForEntity(
+                "/v3/api/books/" + bookId + "/image?w=100&format=jpg", byte[].class);
+        assertEquals(HttpStatus.OK, variantResponse.getStatusCode());
+        assertEquals(MediaType.IMAGE_JPEG, variantResponse.getHeaders().getContentType());
+        BufferedImage variant = ImageIO.read(new ByteArrayInputStream(variantResponse.getBody()));
+        assertEquals(100, variant.getWidth());
+        assertEquals(50, variant.getHeight());
+        assertNotEquals(original.size(), variantResponse.getBody().length);
+
+        ResponseEntity<String> invalid = restTemplate.getForEntity(
+                "/v3/api/books/" + bookId + "/image?w=0", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+
+        // Once stored, a variant is served even while every render worker and queue slot is taken.
+        imageCache.invalidate("v3/" + bookId);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; !imageVariants.getOrCreate("busy/" + i, () -> {
+                release.await();
+                return new byte[0];
+            }).isCompletedExceptionally(); i++) {
+            }
+            ResponseEntity<byte[]> stored = restTemplate.getForEntity(
+                    "/v3/api/books/" + bookId + "/image?w=100&format=jpg", byte[].class);
+            assertEquals(HttpStatus.OK, stored.getStatusCode());
+            assertArrayEquals(variantResponse.getBody(), stored.getBody());
+        } finally {
+            release.countDown();
+        }
     }
 
     @Test
@@ -189,6 +433,154 @@ public class HibernateControllerAutoTest {
         assertEquals("Farcuad", content.get(0).getName());
     }
 
+    @Test
+    public void testGetBooksRsqlFilter() {
+        ResponseEntity<RestPageImpl<HibernateBook>> response = restTemplate.exchange(
+                "/v3/api/books?filter={filter}",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                },
+                "author==Henry,lastReaded=gt=3"
+        );
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        for (HibernateBook book : response.getBody().getContent()) {
+            assertTrue("Henry".equals(book.getAuthor()) || book.getLastReaded() > 3);
+        }
+
+        ResponseEntity<String> invalid = restTemplate.exchange(
+                "/v3/api/books?filter={filter}",
+                HttpMethod.GET,
+                null,
+                String.class,
+                "unknown==1"
+        );
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+    }
+
+    @Test
+    public void testGetBooksRsqlTypedFilter() {
+        assertEquals(HttpStatus.CREATED, createBookRequest(createBook("Typed Nine", "Typed Author", 9)).getStatusCode());
+        assertEquals(HttpStatus.CREATED, createBookRequest(createBook("Typed Eleven", "Typed Author", 11)).getStatusCode());
+
+        ResponseEntity<RestPageImpl<HibernateBook>> response = restTemplate.exchange(
+                "/v3/api/books?size=50&filter={filter}",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                },
+                "author=='Typed Author';lastReaded=ge=10;name=like=Typed*"
+        );
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().getContent().isEmpty());
+        for (HibernateBook book : response.getBody().getContent()) {
+            assertTrue(book.getLastReaded() >= 10);
+            assertTrue(book.getName().startsWith("Typed"));
+        }
+    }
+
+    @Test
+    public void testGetBooksRsqlNullFilter() {
+        assertEquals(HttpStatus.CREATED, createBookRequest(createBook("Null Check", "Null Author", 1)).getStatusCode());
+
+        // Every book has a name, so only the filters that mean "name is not null" match anything.
+        for (String filter : List.of("name=isnull=false", "name=notnull=true")) {
+            ResponseEntity<RestPageImpl<HibernateBook>> response = restTemplate.exchange(
+                    "/v3/api/books?filter={filter}",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<>() {
+                    },
+                    filter
+            );
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertFalse(response.getBody().getContent().isEmpty());
+        }
+        for (String filter : List.of("name=isnull=true", "name=notnull=false")) {
+            ResponseEntity<RestPageImpl<HibernateBook>> response = restTemplate.exchange(
+                    "/v3/api/books?filter={filter}",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<>() {
+                    },
+                    filter
+            );
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertTrue(response.getBody().getContent().isEmpty());
+        }
+
+        ResponseEntity<String> invalid = restTemplate.exchange(
+                "/v3/api/books?filter={filter}",
+                HttpMethod.GET,
+                null,
+                String.class,
+                "name=isnull=maybe"
+        );
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+    }
+
+    @Test
+    public void testPaginationCountStrategies() {
+        ResponseEntity<Map<String, Object>> noCount = restTemplate.exchange(
+                "/v3/api/books?page=0&size=2&count=none",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        assertEquals(HttpStatus.OK, noCount.getStatusCode());
+        assertEquals("none", noCount.getHeaders().getFirst("X-Total-Count-Strategy"));
+        assertNotNull(noCount.getBody());
+        assertFalse(noCount.getBody().containsKey("totalElements"));
+
+        ResponseEntity<Map<String, Object>> cached = restTemplate.exchange(
+                "/v3/api/books?page=0&size=2&count=cached&author=Author",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        assertEquals(HttpStatus.OK, cached.getStatusCode());
+        assertEquals("cached", cached.getHeaders().getFirst("X-Total-Count-Strategy"));
+        assertNotNull(cached.getBody());
+        assertTrue(cached.getBody().containsKey("totalElements"));
+    }
+
+    @Test
+    public void testKeysetPagination() {
+        for (int i = 1; i <= 7; i++) {
+            ResponseEntity<HibernateBook> response = createBookRequest(createBook("Keyset " + i, "Keyset Author", i));
+            assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        }
+
+        Set<Long> seenIds = new HashSet<>();
+        String cursor = "";
+        int lastReaded = 0;
+        do {
+            ResponseEntity<KeysetSlice<HibernateBook>> response = restTemplate.exchange(
+                    "/v3/api/books?author=Keyset Author&sort=lastReaded&size=3&after=" + cursor,
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<>() {
+                    }
+            );
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            KeysetSlice<HibernateBook> slice = response.getBody();
+            assertNotNull(slice);
+
+            for (HibernateBook book : slice.getContent()) {
+                assertTrue(seenIds.add(book.getId()));
+                assertTrue(book.getLastReaded() >= lastReaded);
+                lastReaded = book.getLastReaded();
+            }
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+
+        assertTrue(seenIds.size() >= 7);
+    }
+
     private static void createBucketIfNotExists(S3Client s3, String bucketName, Region region) {
         try {
             s3.headBucket(HeadBucketRequest.builder().bucket(bucketName).build());
@@ -0,0 +1,98 @@
+package com.bookdb.book;
+
+import com.bookdb.book.image.CachedImage;
+import com.bookdb.book.image.ImageCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private ImageCache cache(SimpleMeterRegistry registry) throws IOException {
+        return new ImageCache(DataSize.ofBytes(100), DataSize.ofBytes(1000), DataSize.ofBytes(60), directory, registry);
+    }
+
+    @Test
+    public void testHeapIsBoundedByBytesAndFallsBackToDisk() throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ImageCache cache = cache(registry);
+
+        cache.put("v4/1", new CachedImage(new byte[50], "image/png", "\"a\"", null), cache.version());
+        cache.put("v4/2", new CachedImage(new byte[50], "image/png", "\"b\"", null), cache.version());
+        cache.put("v4/3", new CachedImage(new byte[50], "image/png", "\"c\"", null), cache.version());
+
+        assertEquals(1, registry.get("bookdb.image.cache.evictions").tag("tier", "heap").counter().count());
+
+        CachedImage evicted = cache.get("v4/1");
+        assertNotNull(evicted);
+        assertEquals(50, evicted.data().length);
+        assertEquals("\"a\"", evicted.eTag());
+        assertEquals(1, registry.get("bookdb.image.cache.requests")
+                .tag("tier", "disk").tag("result", "hit").counter().count());
+
+        cache.bindTo(registry);
+        assertEquals(100, registry.get("bookdb.image.cache.size").tag("tier", "heap").gauge().value());
+    }
+
+    @Test
+    public void testInvalidationWinsOverConcurrentLoad() throws IOException {
+        ImageCache cache = cache(new SimpleMeterRegistry());
+
+        long version = cache.version();
+        cache.invalidate("v3/1");
+        cache.put("v3/1", new CachedImage(new byte[10], null, null, null), version);
+        assertNull(cache.get("v3/1"));
+
+        cache.put("v3/1", new CachedImage(new byte[10], null, null, null), cache.version());
+        assertNotNull(cache.get("v3/1"));
+        cache.invalidate("v3/1");
+        assertNull(cache.get("v3/1"));
+    }
+
+    @Test
+    public void testInvalidationKeepsConcurrentLoadsOfOtherKeys() throws IOException {
+        ImageCache cache = cache(new SimpleMeterRegistry());
+
+        long version = cache.version();
+        cache.invalidate("v3/2");
+        cache.put("v3/1", new CachedImage(new byte[10], null, null, null), version);
+        cache.put("v3/1/w10.png", new CachedImage(new byte[5], null, null, null), version);
+        assertNotNull(cache.get("v3/1"));
+        assertNotNull(cache.get("v3/1/w10.png"));
+
+        cache.invalidate("v3/1");
+        cache.put("v3/1/w20.png", new CachedImage(new byte[5], null, null, null), version);
+        assertNull(cache.get("v3/1/w20.png"));
+    }
+
+    @Test
+    public void testInvalidationRemovesVariants() throws IOException {
+        ImageCache cache = cache(new SimpleMeterRegistry());
+
+        cache.put("v3/1", new CachedImage(new byte[10], null, null, null), cache.version());
+        cache.put("v3/1/w10.png", new CachedImage(new byte[5], null, null, null), cache.version());
+        cache.put("v3/12", new CachedImage(new byte[10], null, null, null), cache.version());
+
+        cache.invalidate("v3/1");
+        assertNull(cache.get("v3/1"));
+        assertNull(cache.get("v3/1/w10.png"));
+        assertNotNull(cache.get("v3/12"));
+    }
+
+    @Test
+    public void testLargeImagesAreNotCached() throws IOException {
+        ImageCache cache = cache(new SimpleMeterRegistry());
+
+        cache.put("v4/1", new CachedImage(new byte[61], null, null, null), cache.version());
+        assertNull(cache.get("v4/1"));
+    }
+}
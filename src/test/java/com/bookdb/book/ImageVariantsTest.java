@@ -0,0 +1,84 @@
+package com.bookdb.book;
+
+import com.bookdb.book.image.ImageVariant;
+import com.bookdb.book.image.ImageVariants;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageVariantsTest {
+
+    private final ImageVariants variants = new ImageVariants(2, 4, 1000, 10_000_000);
+
+    @Test
+    public void testRenderKeepsAspectRatioAndNeverUpscales() throws IOException {
+        byte[] original = png(800, 400);
+
+        BufferedImage thumbnail = read(variants.render(new ByteArrayInputStream(original),
+                variants.parse(100, null, "png")));
+        assertEquals(100, thumbnail.getWidth());
+        assertEquals(50, thumbnail.getHeight());
+
+        BufferedImage boxed = read(variants.render(new ByteArrayInputStream(original),
+                variants.parse(100, 100, "jpg")));
+        assertEquals(100, boxed.getWidth());
+        assertEquals(50, boxed.getHeight());
+
+        BufferedImage notUpscaled = read(variants.render(new ByteArrayInputStream(original),
+                variants.parse(900, null, "png")));
+        assertEquals(800, notUpscaled.getWidth());
+    }
+
+    @Test
+    public void testParseValidatesParameters() {
+        assertNull(variants.parse(null, null, null));
+        assertEquals(new ImageVariant(10, null, "jpeg"), variants.parse(10, null, "JPG"));
+        assertEquals("w10-h20.png", variants.parse(10, 20, "png").name());
+        assertThrows(ResponseStatusException.class, () -> variants.parse(0, null, null));
+        assertThrows(ResponseStatusException.class, () -> variants.parse(1001, null, null));
+        assertThrows(ResponseStatusException.class, () -> variants.parse(10, null, "svg"));
+        assertEquals("jpeg", variants.resolve(variants.parse(10, null, null), "image/jpeg").format());
+        assertEquals("png", variants.resolve(variants.parse(10, null, null), "application/octet-stream").format());
+    }
+
+    @Test
+    public void testConcurrentRequestsShareOneRender() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<byte[]> first = variants.getOrCreate("v3/1/w10.png", () -> {
+            loads.incrementAndGet();
+            release.await();
+            return new byte[]{1};
+        });
+        CompletableFuture<byte[]> second = variants.getOrCreate("v3/1/w10.png", () -> {
+            loads.incrementAndGet();
+            return new byte[]{2};
+        });
+        release.countDown();
+
+        assertArrayEquals(new byte[]{1}, first.get());
+        assertArrayEquals(new byte[]{1}, second.get());
+        assertEquals(1, loads.get());
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", output);
+        return output.toByteArray();
+    }
+
+    private static BufferedImage read(byte[] data) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(data));
+    }
+}
@@ -0,0 +1,86 @@
+package com.bookdb.book;
+
+import com.bookdb.book.db.InMemoryBookStore;
+import com.bookdb.book.entity.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryBookStoreTest {
+
+    @Test
+    public void testIdsAreNotReusedAfterDelete() {
+        InMemoryBookStore store = new InMemoryBookStore();
+        Book first = store.create(new Book(0, "First", "Author", 1));
+        Book second = store.create(new Book(0, "Second", "Author", 2));
+
+        assertNotNull(store.remove(first.getId()));
+        Book third = store.create(new Book(0, "Third", "Author", 3));
+
+        assertNotEquals(second.getId(), third.getId());
+        assertNull(store.get(first.getId()));
+        assertEquals("Second", store.get(second.getId()).getName());
+        assertEquals(List.of(second, third), store.findAll());
+    }
+
+    @Test
+    public void testReplaceOnlyExistingBooks() {
+        InMemoryBookStore store = new InMemoryBookStore();
+        Book book = store.create(new Book(0, "Book", "Author", 1));
+
+        assertNull(store.replace(42, new Book(0, "Missing", "Author", 1)));
+        assertNull(store.get(42));
+
+        assertSame(book, store.replace(book.getId(), new Book(0, "Updated", "Author", 5)));
+        assertEquals("Updated", store.get(book.getId()).getName());
+        assertEquals(book.getId(), store.get(book.getId()).getId());
+    }
+
+    @Test
+    public void testConcurrentWrites() throws Exception {
+        InMemoryBookStore store = new InMemoryBookStore();
+        int threads = 8;
+        int perThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Integer> kept = ConcurrentHashMap.newKeySet();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    Book book = store.create(new Book(0, "Book " + i, "Author", i));
+                    assertSame(book, store.get(book.getId()));
+                    if (i % 2 == 0) {
+                        assertSame(book, store.remove(book.getId()));
+                    } else {
+                        kept.add(book.getId());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(threads * perThread / 2, kept.size());
+        assertEquals(kept.size(), store.size());
+        for (int id : kept) {
+            assertNotNull(store.get(id));
+        }
+    }
+}
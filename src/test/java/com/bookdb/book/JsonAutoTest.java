@@ -29,6 +29,7 @@ import org.springframework.util.MultiValueMap;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
 import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
@@ -39,7 +40,11 @@ import java.math.BigDecimal;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -69,6 +74,9 @@ class JsonAutoTest {
     @Mock
     private S3Client s3Client;
 
+    @Autowired
+    private S3AsyncClient s3AsyncClient;
+
     @BeforeAll
     public static void setup() {
         Region region = Region.EU_NORTH_1;
@@ -114,6 +122,36 @@ class JsonAutoTest {
         assertEquals(4, book.getLastReaded().intValue());
     }
 
+    @Test
+    public void testGetBooksWithFields() {
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                "/v4/api/books/1?fields=name,lastReaded",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        assertEquals(200, response.getStatusCode().value());
+        assertNotNull(response.getBody());
+        assertEquals(Set.of("name", "lastReaded"), response.getBody().keySet());
+        assertEquals("Farcuad", response.getBody().get("name"));
+
+        ResponseEntity<List<Map<String, Object>>> list = restTemplate.exchange(
+                "/v4/api/books?size=3&fields=id",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        assertEquals(200, list.getStatusCode().value());
+        assertNotNull(list.getBody());
+        assertFalse(list.getBody().isEmpty());
+        list.getBody().forEach(book -> assertEquals(Set.of("id"), book.keySet()));
+
+        ResponseEntity<String> unknown = restTemplate.getForEntity("/v4/api/books/1?fields=book", String.class);
+        assertEquals(400, unknown.getStatusCode().value());
+    }
+
     @Test
     public void testGetBookByIdError() {
         ResponseEntity<JsonBook> response = restTemplate.exchange(
@@ -284,6 +322,33 @@ class JsonAutoTest {
         assertEquals(200, responseGetImage.getStatusCode().value());
         assertNotNull(responseGetImage.getBody());
         assertArrayEquals(imageBytes, responseGetImage.getBody());
+        assertEquals(imageBytes.length, responseGetImage.getHeaders().getContentLength());
+        assertNotNull(responseGetImage.getHeaders().getETag());
+
+        HttpHeaders rangeHeaders = new HttpHeaders();
+        rangeHeaders.setRange(List.of(HttpRange.createByteRange(0, 4)));
+        ResponseEntity<byte[]> responseGetRange = restTemplate.exchange(
+                "/v4/api/books/" + postBook.getId() + "/image",
+                HttpMethod.GET,
+                new HttpEntity<>(rangeHeaders),
+                byte[].class
+        );
+        assertEquals(206, responseGetRange.getStatusCode().value());
+        assertArrayEquals("dummy".getBytes(StandardCharsets.UTF_8), responseGetRange.getBody());
+        assertEquals("bytes 0-4/" + imageBytes.length,
+                responseGetRange.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+
+        HttpHeaders conditionalHeaders = new HttpHeaders();
+        conditionalHeaders.setIfNoneMatch(responseGetImage.getHeaders().getETag());
+        ResponseEntity<byte[]> responseNotModified = restTemplate.exchange(
+                "/v4/api/books/" + postBook.getId() + "/image",
+                HttpMethod.GET,
+                new HttpEntity<>(conditionalHeaders),
+                byte[].class
+        );
+        assertEquals(304, responseNotModified.getStatusCode().value());
+        assertNull(responseNotModified.getBody());
+        assertEquals(List.of(responseGetImage.getHeaders().getETag()), responseNotModified.getHeaders().get(HttpHeaders.ETAG));
 
 
         ResponseEntity<byte[]> responseGetImageNotFound = restTemplate.exchange(
@@ -295,6 +360,76 @@ class JsonAutoTest {
         assertEquals(404, responseGetImageNotFound.getStatusCode().value());
     }
 
+    @Test
+    public void testBlockingS3CallbacksDoNotStallOtherCalls() throws Exception {
+        // Upload and image callbacks run JDBC and stream reads; while they block, other S3 calls still complete.
+        HeadBucketRequest request = HeadBucketRequest.builder().bucket("books-storage").build();
+        Thread caller = Thread.currentThread();
+        int calls = 64;
+        CountDownLatch started = new CountDownLatch(calls);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < calls; i++) {
+                s3AsyncClient.headBucket(request).thenRun(() -> {
+                    started.countDown();
+                    // A call that already completed runs its callback right here, which must not block the test.
+                    if (Thread.currentThread() != caller) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            assertNotNull(s3AsyncClient.headBucket(request).get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testGetBooksRsqlFilter() {
+        ResponseEntity<List<TestBook>> response = restTemplate.exchange(
+                "/v4/api/books?size=20&filter={filter}",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                },
+                "author==Henry"
+        );
+        assertEquals(200, response.getStatusCode().value());
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().isEmpty());
+        response.getBody().forEach(book -> assertEquals("Henry", book.getAuthor()));
+    }
+
+    @Test
+    public void testGetBooksRsqlIndexedJsonFilter() {
+        ResponseEntity<List<TestBook>> response = restTemplate.exchange(
+                "/v4/api/books?size=20&filter={filter}",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                },
+                "author=in=(Henry,Nobody);lastReaded=ge=0;name=like=*"
+        );
+        assertEquals(200, response.getStatusCode().value());
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().isEmpty());
+        response.getBody().forEach(book -> assertEquals("Henry", book.getAuthor()));
+
+        ResponseEntity<String> badValue = restTemplate.exchange(
+                "/v4/api/books?filter={filter}",
+                HttpMethod.GET,
+                null,
+                String.class,
+                "lastReaded==abc"
+        );
+        assertEquals(400, badValue.getStatusCode().value());
+    }
+
     @Test
     public void testGetBooksFilteredBylastReaded() {
         ResponseEntity<List<TestBook>> response = restTemplate.exchange(
@@ -0,0 +1,219 @@
+package com.bookdb.book;
+
+import com.bookdb.book.controller.pagination.KeysetCursor;
+import com.bookdb.book.controller.pagination.KeysetRanges;
+import com.bookdb.book.entity.HibernateBook;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pages through {@code books.book} with {@link KeysetRanges} on an embedded Postgres initialized with the Initdb
+ * scripts, and checks with EXPLAIN ANALYZE that a deep page seeks into the {@code (name, id)} index instead of
+ * reading and filtering everything before the cursor.
+ */
+public class KeysetPaginationTest {
+
+    private static final int BOOKS = 20_000;
+
+    private static final int PAGE_SIZE = 50;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    private static EmbeddedPostgres postgres;
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void startDatabase() throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            for (int i = 1; new ClassPathResource("Initdb" + i + ".sql").exists(); i++) {
+                statement.execute(new ClassPathResource("Initdb" + i + ".sql").getContentAsString(StandardCharsets.UTF_8));
+            }
+            // Few distinct names, so the id tie-breaker matters, and every tenth name NULL.
+            statement.execute("INSERT INTO books.book (name, author, lastReaded) "
+                    + "SELECT CASE WHEN n % 10 = 0 THEN NULL ELSE 'Keyset ' || lpad((n % 500)::text, 3, '0') END, "
+                    + "'Keyset Author', n % 7 + 1 FROM generate_series(1, " + BOOKS + ") n");
+            statement.execute("ANALYZE books.book");
+        }
+
+        Configuration configuration = new Configuration();
+        configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, postgres.getPostgresDatabase());
+        sessionFactory = configuration
+                .addAnnotatedClass(HibernateBook.class)
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, false)
+                .setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none")
+                // Literals inline, so the captured SQL can be explained as it is.
+                .setProperty(AvailableSettings.CRITERIA_VALUE_HANDLING_MODE, "inline")
+                .setStatementInspector(sql -> {
+                    STATEMENTS.add(sql);
+                    return sql;
+                })
+                .buildSessionFactory();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    public void testPagesMatchFullOrderAscending() throws SQLException {
+        assertEquals(orderedIds("ASC"), pageThrough(true));
+    }
+
+    @Test
+    public void testPagesMatchFullOrderDescending() throws SQLException {
+        assertEquals(orderedIds("DESC"), pageThrough(false));
+    }
+
+    @Test
+    public void testDeepPageSeeksIntoIndex() throws Exception {
+        for (boolean ascending : List.of(true, false)) {
+            List<HibernateBook> before = firstRows(ascending, BOOKS * 3 / 4);
+            HibernateBook last = before.getLast();
+            KeysetCursor cursor = new KeysetCursor("name", ascending, last.getName(), last.getId());
+            assertNotNull(cursor.value(), "cursor should sit in the non-null range");
+
+            JsonNode scan = explainScan(KeysetRanges.<HibernateBook>after(cursor).getFirst(), ascending);
+            assertTrue(scan.path("Index Cond").asText().contains("ROW("), "not a row comparison: " + scan);
+            assertTrue(scan.path("Filter").isMissingNode(), "filtered instead of seeking: " + scan);
+            assertTrue(scan.path("Actual Rows").asLong() <= PAGE_SIZE + 1, "read too many rows: " + scan);
+        }
+    }
+
+    @Test
+    public void testNullKeysArePagedByIdIndex() throws Exception {
+        HibernateBook firstNull = firstRows(true, BOOKS).stream()
+                .filter(book -> book.getName() == null)
+                .skip(BOOKS / 20)
+                .findFirst()
+                .orElseThrow();
+        KeysetCursor cursor = new KeysetCursor("name", true, null, firstNull.getId());
+
+        JsonNode scan = explainScan(KeysetRanges.<HibernateBook>after(cursor).getFirst(), true);
+        assertTrue(scan.path("Index Cond").asText().contains("IS NULL"), "NULL range not seeked: " + scan);
+        assertTrue(scan.path("Actual Rows").asLong() <= PAGE_SIZE + 1, "read too many rows: " + scan);
+    }
+
+    private List<Long> pageThrough(boolean ascending) {
+        List<Long> ids = new ArrayList<>();
+        KeysetCursor cursor = null;
+        while (true) {
+            List<HibernateBook> rows = new ArrayList<>();
+            for (Specification<HibernateBook> range : KeysetRanges.<HibernateBook>after(cursor)) {
+                int remaining = PAGE_SIZE + 1 - rows.size();
+                if (remaining == 0) {
+                    break;
+                }
+                rows.addAll(query(range, ascending, remaining));
+            }
+            List<HibernateBook> page = rows.subList(0, Math.min(PAGE_SIZE, rows.size()));
+            page.forEach(book -> ids.add(book.getId()));
+            if (rows.size() <= PAGE_SIZE) {
+                return ids;
+            }
+            HibernateBook last = page.getLast();
+            cursor = new KeysetCursor("name", ascending, last.getName(), last.getId());
+        }
+    }
+
+    private List<HibernateBook> firstRows(boolean ascending, int limit) {
+        return query((root, query, criteriaBuilder) -> null, ascending, limit);
+    }
+
+    private List<HibernateBook> query(Specification<HibernateBook> range, boolean ascending, int limit) {
+        try (Session session = sessionFactory.openSession()) {
+            CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+            CriteriaQuery<HibernateBook> query = criteriaBuilder.createQuery(HibernateBook.class);
+            Root<HibernateBook> root = query.from(HibernateBook.class);
+            var predicate = range.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+            query.orderBy(ascending
+                    ? List.of(criteriaBuilder.asc(root.get("name")), criteriaBuilder.asc(root.get("id")))
+                    : List.of(criteriaBuilder.desc(root.get("name")), criteriaBuilder.desc(root.get("id"))));
+            return session.createQuery(query).setMaxResults(limit).getResultList();
+        }
+    }
+
+    /**
+     * Runs the page query for {@code range} and returns the plan node that reads {@code books.book}.
+     */
+    private JsonNode explainScan(Specification<HibernateBook> range, boolean ascending) throws Exception {
+        STATEMENTS.clear();
+        assertEquals(PAGE_SIZE + 1, query(range, ascending, PAGE_SIZE + 1).size());
+        String sql = STATEMENTS.getLast().replace("?", Integer.toString(PAGE_SIZE + 1));
+
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN (ANALYZE, FORMAT JSON) " + sql)) {
+            assertTrue(plan.next());
+            JsonNode scan = findScan(MAPPER.readTree(plan.getString(1)).get(0).get("Plan"));
+            assertNotNull(scan, "no scan of books.book in " + plan.getString(1));
+            assertEquals("Index Scan", scan.path("Node Type").asText(), "plan: " + scan);
+            assertEquals("book_name_id_idx", scan.path("Index Name").asText(), "plan: " + scan);
+            return scan;
+        }
+    }
+
+    private static JsonNode findScan(JsonNode node) {
+        if ("book".equals(node.path("Relation Name").asText())) {
+            return node;
+        }
+        for (JsonNode child : node.path("Plans")) {
+            JsonNode scan = findScan(child);
+            if (scan != null) {
+                return scan;
+            }
+        }
+        return null;
+    }
+
+    private static List<Long> orderedIds(String direction) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT id FROM books.book ORDER BY name " + direction + ", id " + direction);
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
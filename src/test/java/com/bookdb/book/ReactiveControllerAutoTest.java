@@ -0,0 +1,196 @@
+package com.bookdb.book;
+
+import com.bookdb.book.controller.service.reactive.ReactiveServiceInterface;
+import com.bookdb.book.entity.HibernateBook;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// Small chunks, so listings span several of them.
+@TestPropertySource(properties = "bookdb.v5.fetch-size=2")
+@DirtiesContext
+public class ReactiveControllerAutoTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReactiveServiceInterface reactiveService;
+
+    @Value("${bookdb.r2dbc.pool.max-size}")
+    private int poolSize;
+
+    @Test
+    public void testStreamBooks() throws Exception {
+        ResponseEntity<String> response = restTemplate.getForEntity("/v5/api/books?limit=3", String.class);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+        assertNotNull(response.getBody());
+        List<String> lines = response.getBody().lines().filter(line -> !line.isBlank()).toList();
+        assertFalse(lines.isEmpty());
+        assertTrue(lines.size() <= 3);
+        long previousId = 0;
+        for (String line : lines) {
+            HibernateBook book = objectMapper.readValue(line, HibernateBook.class);
+            assertTrue(book.getId() > previousId);
+            previousId = book.getId();
+        }
+
+        ResponseEntity<String> badLimit = restTemplate.getForEntity("/v5/api/books?limit=0", String.class);
+        assertEquals(400, badLimit.getStatusCode().value());
+    }
+
+    @Test
+    public void testSlowConsumersDoNotHoldConnections() throws Exception {
+        String prefix = "Slow Consumer " + System.currentTimeMillis() + " ";
+        for (int i = 0; i < 3; i++) {
+            HibernateBook book = HibernateBook.builder().name(prefix + i).author("Reactive Author").lastReaded(5).build();
+            assertEquals(201, restTemplate.postForEntity("/v5/api/books", book, HibernateBook.class).getStatusCode().value());
+        }
+
+        // More listings than pooled connections, each reading one row and then stalling.
+        int consumers = poolSize + 10;
+        CountDownLatch firstRows = new CountDownLatch(consumers);
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        List<BaseSubscriber<HibernateBook>> subscribers = new ArrayList<>();
+        for (int i = 0; i < consumers; i++) {
+            BaseSubscriber<HibernateBook> subscriber = new BaseSubscriber<>() {
+                @Override
+                protected void hookOnSubscribe(Subscription subscription) {
+                    request(1);
+                }
+
+                @Override
+                protected void hookOnNext(HibernateBook book) {
+                    firstRows.countDown();
+                }
+
+                @Override
+                protected void hookOnError(Throwable throwable) {
+                    errors.add(throwable);
+                }
+            };
+            subscribers.add(subscriber);
+            reactiveService.getAllBooks(prefix, null, 0, null).subscribe(subscriber);
+        }
+        try {
+            assertTrue(firstRows.await(10, TimeUnit.SECONDS), "stalled listings hold connections: " + errors);
+            assertTrue(errors.isEmpty(), errors.toString());
+
+            // While they stall, other listings still get a connection, and nothing is skipped or repeated across
+            // chunk boundaries.
+            assertEquals(List.of(prefix + 0, prefix + 1, prefix + 2), reactiveService
+                    .getAllBooks(prefix, null, 0, null).map(HibernateBook::getName).collectList().block());
+            assertEquals(List.of(prefix + 0, prefix + 1), reactiveService
+                    .getAllBooks(prefix, null, 0, 2).map(HibernateBook::getName).collectList().block());
+            assertTrue(errors.isEmpty(), errors.toString());
+        } finally {
+            subscribers.forEach(BaseSubscriber::dispose);
+        }
+    }
+
+    @Test
+    public void testCreateGetAndUpdateBook() {
+        HibernateBook book = HibernateBook.builder().name("Reactive Book").author("Reactive Author").lastReaded(5).build();
+        ResponseEntity<HibernateBook> created = restTemplate.postForEntity("/v5/api/books", book, HibernateBook.class);
+        assertEquals(201, created.getStatusCode().value());
+        assertNotNull(created.getBody());
+        long id = created.getBody().getId();
+        assertEquals(0L, created.getBody().getVersion());
+
+        ResponseEntity<HibernateBook> fetched = restTemplate.getForEntity("/v5/api/books/" + id, HibernateBook.class);
+        assertEquals(200, fetched.getStatusCode().value());
+        assertEquals("Reactive Book", fetched.getBody().getName());
+
+        // The /v3 view must not serve a stale second-level cache entry after a /v5 write.
+        restTemplate.getForEntity("/v3/api/books/" + id, HibernateBook.class);
+        book.setName("Reactive Book 2");
+        book.setVersion(0L);
+        ResponseEntity<HibernateBook> updated = restTemplate.exchange("/v5/api/books/" + id, HttpMethod.PUT,
+                new HttpEntity<>(book), HibernateBook.class);
+        assertEquals(200, updated.getStatusCode().value());
+        assertEquals(1L, updated.getBody().getVersion());
+        assertEquals("Reactive Book 2",
+                restTemplate.getForEntity("/v3/api/books/" + id, HibernateBook.class).getBody().getName());
+
+        ResponseEntity<String> stale = restTemplate.exchange("/v5/api/books/" + id, HttpMethod.PUT,
+                new HttpEntity<>(book), String.class);
+        assertEquals(409, stale.getStatusCode().value());
+
+        ResponseEntity<Map<String, String>> invalid = restTemplate.exchange("/v5/api/books", HttpMethod.POST,
+                new HttpEntity<>(HibernateBook.builder().name("abc").author("Reactive Author").lastReaded(5).build()),
+                new ParameterizedTypeReference<>() {
+                });
+        assertEquals(400, invalid.getStatusCode().value());
+        assertTrue(invalid.getBody().containsKey("name"));
+
+        assertEquals(404, restTemplate.getForEntity("/v5/api/books/0", String.class).getStatusCode().value());
+    }
+
+    @Test
+    public void testReadDuringUpdateDoesNotRecacheOldRow() {
+        HibernateBook book = HibernateBook.builder().name("Reactive Contended").author("Reactive Author").lastReaded(5).build();
+        ResponseEntity<HibernateBook> created = restTemplate.postForEntity("/v5/api/books", book, HibernateBook.class);
+        assertNotNull(created.getBody());
+        long id = created.getBody().getId();
+        restTemplate.getForEntity("/v3/api/books/" + id, HibernateBook.class);
+
+        // A /v3 read whose snapshot predates the /v5 update loads the book only after the update has responded.
+        EntityManager reader = entityManagerFactory.createEntityManager();
+        try {
+            reader.getTransaction().begin();
+            reader.unwrap(Session.class).doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ");
+                    statement.execute("SELECT 1");
+                }
+            });
+
+            book.setName("Reactive Contended 2");
+            ResponseEntity<HibernateBook> updated = restTemplate.exchange("/v5/api/books/" + id, HttpMethod.PUT,
+                    new HttpEntity<>(book), HibernateBook.class);
+            assertEquals(200, updated.getStatusCode().value());
+
+            assertEquals("Reactive Contended", reader.find(HibernateBook.class, id).getName());
+            reader.getTransaction().commit();
+        } finally {
+            reader.close();
+        }
+
+        assertEquals("Reactive Contended 2",
+                restTemplate.getForEntity("/v3/api/books/" + id, HibernateBook.class).getBody().getName());
+    }
+}
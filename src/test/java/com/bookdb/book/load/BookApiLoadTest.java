@@ -0,0 +1,121 @@
+package com.bookdb.book.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives every API version with the mix, rate and concurrency of {@link LoadScenario} and fails if a latency budget
+ * is exceeded (or only warns while the budgets are placeholders, see {@link LatencyBudgets}). The app runs against an in-process Postgres initialized with the Initdb scripts and an in-memory S3
+ * stand-in, so nothing has to be running locally. Excluded from the regular build, run it with
+ * {@code mvn -Pload test}, e.g. {@code mvn -Pload test -Dload.rate=500 -Dload.image-storage=s3}.
+ */
+@Tag("load")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN",
+        "spring.boot.admin.client.enabled=false",
+        "aws.s3.path-style-access=true"
+})
+@DirtiesContext
+public class BookApiLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookApiLoadTest.class);
+
+    private static final LoadScenario SCENARIO = LoadScenario.fromSystemProperties();
+
+    private static EmbeddedPostgres postgres;
+
+    private static EmbeddedS3 s3;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void backends(DynamicPropertyRegistry registry) throws IOException, SQLException {
+        postgres = EmbeddedPostgres.builder().start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            for (int i = 1; new ClassPathResource("Initdb" + i + ".sql").exists(); i++) {
+                statement.execute(new ClassPathResource("Initdb" + i + ".sql").getContentAsString(StandardCharsets.UTF_8));
+            }
+        }
+        s3 = new EmbeddedS3();
+        String imageDirectory = Files.createTempDirectory("load-image-store").toString();
+
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("bookdb.r2dbc.url", () -> "r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres");
+        registry.add("aws.s3.url", s3::endpoint);
+        registry.add("bookdb.image.storage", SCENARIO::imageStorage);
+        registry.add("bookdb.image.filesystem.directory", () -> imageDirectory);
+    }
+
+    @AfterAll
+    static void stopBackends() throws IOException {
+        if (s3 != null) {
+            s3.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    public void testLatencyBudgets() throws Exception {
+        LatencyBudgets budgets = LatencyBudgets.load(SCENARIO.budgets());
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build()) {
+            BookApiWorkload workload = new BookApiWorkload(client, URI.create("http://localhost:" + port), objectMapper);
+            workload.seed(SCENARIO.books(), SCENARIO.images());
+            List<LoadOperation> operations = workload.operations(SCENARIO.mix());
+
+            LoadResult result = new LoadGenerator(client, 42).run(SCENARIO, operations);
+            LatencyReport report = LatencyReport.of(result, budgets);
+            report.write(SCENARIO.reportDirectory());
+
+            String violations = "Latency budgets exceeded, see " + SCENARIO.reportDirectory().resolve("report.html")
+                    + ":\n" + String.join("\n", report.budgetViolations());
+            if (!budgets.enforced()) {
+                if (!report.budgetViolations().isEmpty()) {
+                    logger.warn("{}\nThe budgets are not calibrated yet, so the run passes anyway.", violations);
+                }
+                return;
+            }
+            assertTrue(report.budgetViolations().isEmpty(), violations);
+        }
+    }
+}
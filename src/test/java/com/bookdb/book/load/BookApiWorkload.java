@@ -0,0 +1,242 @@
+package com.bookdb.book.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * The requests a load run sends to /v1 through /v5. {@link #seed(int, int)} fills every storage strategy with the
+ * same number of books (/v2, /v3 and /v5 share books.book) and uploads covers for the first of them; the
+ * {@link LoadOperation}s then pick their targets among the seeded ids.
+ */
+public class BookApiWorkload {
+
+    /**
+     * Read-heavy mix over every endpoint, roughly what the API serves in production.
+     */
+    public static final Map<String, Integer> DEFAULT_MIX;
+
+    static {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("v1.get", 10);
+        mix.put("v1.list", 1);
+        mix.put("v1.update", 2);
+        mix.put("v2.get", 10);
+        mix.put("v2.list", 1);
+        mix.put("v2.update", 2);
+        mix.put("v3.get", 10);
+        mix.put("v3.page", 4);
+        mix.put("v3.filter", 3);
+        mix.put("v3.update", 2);
+        mix.put("v3.image", 4);
+        mix.put("v3.image-variant", 2);
+        mix.put("v4.get", 10);
+        mix.put("v4.list", 4);
+        mix.put("v4.update", 2);
+        mix.put("v4.image", 4);
+        mix.put("v4.image-variant", 2);
+        mix.put("v5.get", 5);
+        mix.put("v5.stream", 2);
+        DEFAULT_MIX = Collections.unmodifiableMap(mix);
+    }
+
+    private static final int AUTHORS = 50;
+    private static final int PAGE_SIZE = 20;
+    private static final int BULK_SIZE = 500;
+    private static final Duration SEED_TIMEOUT = Duration.ofSeconds(30);
+    private static final String BOUNDARY = "load-test-boundary";
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final ObjectMapper objectMapper;
+
+    private final List<Long> v1Ids = new ArrayList<>();
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> v4Ids = new ArrayList<>();
+    private final List<Long> v3ImageIds = new ArrayList<>();
+    private final List<Long> v4ImageIds = new ArrayList<>();
+
+    public BookApiWorkload(HttpClient client, URI baseUri, ObjectMapper objectMapper) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.objectMapper = objectMapper;
+    }
+
+    public void seed(int books, int images) throws IOException, InterruptedException {
+        for (int i = 0; i < books; i++) {
+            v1Ids.add(send(post("/v1/api/books", book(i))).get("id").asLong());
+            v4Ids.add(send(post("/v4/api/books", book(i))).get("id").asLong());
+        }
+
+        for (int from = 0; from < books; from += BULK_SIZE) {
+            ArrayNode bulk = objectMapper.createArrayNode();
+            for (int i = from; i < Math.min(books, from + BULK_SIZE); i++) {
+                bulk.add(book(i));
+            }
+            for (JsonNode created : send(post("/v3/api/books/bulk", bulk))) {
+                bookIds.add(created.get("id").asLong());
+            }
+        }
+
+        byte[] cover = cover();
+        for (int i = 0; i < Math.min(images, books); i++) {
+            send(upload("/v3/api/books/" + bookIds.get(i) + "/image", cover));
+            v3ImageIds.add(bookIds.get(i));
+            send(upload("/v4/api/books/" + v4Ids.get(i) + "/image", cover));
+            v4ImageIds.add(v4Ids.get(i));
+        }
+    }
+
+    /**
+     * The operations named in {@code mix} with their weights, in the order of the mix. Endpoints with weight 0 are
+     * left out.
+     */
+    public List<LoadOperation> operations(Map<String, Integer> mix) {
+        Map<String, Function<RandomGenerator, HttpRequest>> requests = requests();
+        List<LoadOperation> operations = new ArrayList<>();
+        mix.forEach((name, weight) -> {
+            Function<RandomGenerator, HttpRequest> request = requests.get(name);
+            if (request == null) {
+                throw new IllegalArgumentException("Unknown endpoint '" + name + "' in load.mix, expected one of "
+                        + requests.keySet());
+            }
+            if (weight > 0) {
+                operations.add(new LoadOperation(name, weight, request));
+            }
+        });
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("load.mix selects no endpoint");
+        }
+        return operations;
+    }
+
+    private Map<String, Function<RandomGenerator, HttpRequest>> requests() {
+        Map<String, Function<RandomGenerator, HttpRequest>> requests = new LinkedHashMap<>();
+        requests.put("v1.get", random -> get("/v1/api/books/" + pick(v1Ids, random)));
+        requests.put("v1.list", _ -> get("/v1/api/books"));
+        requests.put("v1.update", random -> {
+            long id = pick(v1Ids, random);
+            return put("/v1/api/books/" + id, book(random.nextInt(v1Ids.size())).put("id", id));
+        });
+        requests.put("v2.get", random -> get("/v2/api/books/" + pick(bookIds, random)));
+        requests.put("v2.list", _ -> get("/v2/api/books"));
+        requests.put("v2.update", random -> {
+            long id = pick(bookIds, random);
+            return put("/v2/api/books/" + id, book(random.nextInt(bookIds.size())).put("id", id));
+        });
+        requests.put("v3.get", random -> get("/v3/api/books/" + pick(bookIds, random)));
+        requests.put("v3.page", random -> get("/v3/api/books?size=" + PAGE_SIZE + "&count=cached&page="
+                + random.nextInt(Math.max(1, bookIds.size() / PAGE_SIZE))));
+        requests.put("v3.filter", random -> get("/v3/api/books?size=" + PAGE_SIZE + "&count=cached&filter=author=="
+                + author(random.nextInt(AUTHORS))));
+        requests.put("v3.update", random -> put("/v3/api/books/" + pick(bookIds, random),
+                book(random.nextInt(bookIds.size()))));
+        requests.put("v3.image", random -> get("/v3/api/books/" + pick(v3ImageIds, random) + "/image"));
+        requests.put("v3.image-variant", random -> get("/v3/api/books/" + pick(v3ImageIds, random) + "/image?w=64"));
+        requests.put("v4.get", random -> get("/v4/api/books/" + pick(v4Ids, random)));
+        requests.put("v4.list", random -> get("/v4/api/books?size=" + PAGE_SIZE + "&fields=id,name&filter=author=="
+                + author(random.nextInt(AUTHORS))));
+        requests.put("v4.update", random -> put("/v4/api/books/" + pick(v4Ids, random),
+                book(random.nextInt(v4Ids.size()))));
+        requests.put("v4.image", random -> get("/v4/api/books/" + pick(v4ImageIds, random) + "/image"));
+        requests.put("v4.image-variant", random -> get("/v4/api/books/" + pick(v4ImageIds, random) + "/image?w=64"));
+        requests.put("v5.get", random -> get("/v5/api/books/" + pick(bookIds, random)));
+        requests.put("v5.stream", random -> get("/v5/api/books?limit=50&author=" + author(random.nextInt(AUTHORS))));
+        return requests;
+    }
+
+    private ObjectNode book(int index) {
+        return objectMapper.createObjectNode()
+                .put("name", "Load book " + index)
+                .put("author", author(index % AUTHORS))
+                .put("lastReaded", 1 + index % 500);
+    }
+
+    private static String author(int index) {
+        return "Writer" + index;
+    }
+
+    private static long pick(List<Long> ids, RandomGenerator random) {
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Nothing seeded for this endpoint, raise load.books or load.images");
+        }
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, JsonNode body) {
+        return json(path).POST(HttpRequest.BodyPublishers.ofString(body.toString())).build();
+    }
+
+    private HttpRequest put(String path, JsonNode body) {
+        return json(path).PUT(HttpRequest.BodyPublishers.ofString(body.toString())).build();
+    }
+
+    private HttpRequest.Builder json(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).header("Content-Type", "application/json");
+    }
+
+    private HttpRequest upload(String path, byte[] image) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(image.length + 256);
+        body.writeBytes(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"image\"; filename=\"cover.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.writeBytes(image);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(request, (_, _) -> true)
+                .timeout(SEED_TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Seeding failed: " + request.method() + " " + request.uri() + " answered "
+                    + response.statusCode() + " " + response.body());
+        }
+        String body = response.body();
+        return body.startsWith("{") || body.startsWith("[") ? objectMapper.readTree(body) : objectMapper.nullNode();
+    }
+
+    /**
+     * A 400x600 cover with noise, so it neither compresses to nothing nor resizes trivially.
+     */
+    private static byte[] cover() throws IOException {
+        BufferedImage image = new BufferedImage(400, 600, BufferedImage.TYPE_INT_RGB);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int noise = random.nextInt(32);
+                image.setRGB(x, y, ((x * 255 / 400) << 16) | ((y * 255 / 600) << 8) | (128 + noise));
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+}
@@ -0,0 +1,283 @@
+package com.bookdb.book.load;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the S3 API the app uses: path-style object PUT/GET (with a single byte range)/HEAD/
+ * DELETE, ListObjectsV2 and DeleteObjects. Buckets exist implicitly and objects are kept in memory, so load runs
+ * don't need LocalStack. Requests are not authenticated.
+ */
+public class EmbeddedS3 implements AutoCloseable {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final Pattern DELETE_KEY = Pattern.compile("<Key>(.*?)</Key>", Pattern.DOTALL);
+
+    private record StoredObject(byte[] data, String contentType, String eTag, Instant lastModified) {
+    }
+
+    private final ConcurrentNavigableMap<String, StoredObject> objects = new ConcurrentSkipListMap<>();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final HttpServer server;
+
+    public EmbeddedS3() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        // Platform threads: the app's blocking S3 client can pin every carrier thread while it waits for this server.
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int objectCount() {
+        return objects.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            int slash = path.indexOf('/', 1);
+            String bucket = slash < 0 ? path.substring(1) : path.substring(1, slash);
+            String key = slash < 0 ? "" : path.substring(slash + 1);
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if (key.isEmpty()) {
+                if (method.equals("GET") && "2".equals(query.get("list-type"))) {
+                    listObjects(exchange, bucket, query.getOrDefault("prefix", ""));
+                } else if (method.equals("POST") && query.containsKey("delete")) {
+                    deleteObjects(exchange, bucket);
+                } else if (method.equals("PUT") || method.equals("HEAD")) {
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    error(exchange, 501, "NotImplemented", method + " " + path);
+                }
+                return;
+            }
+
+            String objectKey = bucket + "/" + key;
+            switch (method) {
+                case "PUT" -> putObject(exchange, objectKey);
+                case "GET", "HEAD" -> getObject(exchange, objectKey, method.equals("HEAD"));
+                case "DELETE" -> {
+                    objects.remove(objectKey);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> error(exchange, 501, "NotImplemented", method + " " + path);
+            }
+        }
+    }
+
+    private void putObject(HttpExchange exchange, String objectKey) throws IOException {
+        Headers headers = exchange.getRequestHeaders();
+        byte[] data = exchange.getRequestBody().readAllBytes();
+        String contentSha = headers.getFirst("x-amz-content-sha256");
+        if ((contentSha != null && contentSha.startsWith("STREAMING-"))
+                || headers.containsKey("x-amz-decoded-content-length")) {
+            data = decodeAwsChunked(data);
+        }
+        String eTag = "\"" + md5(data) + "\"";
+        objects.put(objectKey, new StoredObject(data, headers.getFirst("Content-Type"), eTag, Instant.now()));
+        exchange.getResponseHeaders().set("ETag", eTag);
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void getObject(HttpExchange exchange, String objectKey, boolean headOnly) throws IOException {
+        StoredObject object = objects.get(objectKey);
+        if (object == null) {
+            if (headOnly) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                error(exchange, 404, "NoSuchKey", "The specified key does not exist.");
+            }
+            return;
+        }
+
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", object.eTag());
+        headers.set("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(object.lastModified().atOffset(ZoneOffset.UTC)));
+        headers.set("Accept-Ranges", "bytes");
+        if (object.contentType() != null) {
+            headers.set("Content-Type", object.contentType());
+        }
+
+        int from = 0;
+        int to = object.data().length - 1;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        Matcher matcher = range == null ? null : RANGE.matcher(range);
+        if (matcher != null && matcher.matches() && object.data().length > 0) {
+            if (matcher.group(1).isEmpty()) {
+                from = Math.max(0, object.data().length - Integer.parseInt(matcher.group(2)));
+            } else {
+                from = Integer.parseInt(matcher.group(1));
+                if (!matcher.group(2).isEmpty()) {
+                    to = Math.min(to, Integer.parseInt(matcher.group(2)));
+                }
+            }
+            if (from > to) {
+                error(exchange, 416, "InvalidRange", "The requested range is not satisfiable");
+                return;
+            }
+            status = 206;
+            headers.set("Content-Range", "bytes " + from + "-" + to + "/" + object.data().length);
+        }
+
+        int length = to - from + 1;
+        if (headOnly) {
+            headers.set("Content-Length", Integer.toString(length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(object.data(), from, length);
+        }
+    }
+
+    private void listObjects(HttpExchange exchange, String bucket, String prefix) throws IOException {
+        StringBuilder contents = new StringBuilder();
+        int count = 0;
+        String from = bucket + "/" + prefix;
+        for (Map.Entry<String, StoredObject> entry : objects.tailMap(from).entrySet()) {
+            if (!entry.getKey().startsWith(from)) {
+                break;
+            }
+            count++;
+            contents.append("<Contents><Key>").append(xml(entry.getKey().substring(bucket.length() + 1)))
+                    .append("</Key><Size>").append(entry.getValue().data().length)
+                    .append("</Size><ETag>").append(xml(entry.getValue().eTag()))
+                    .append("</ETag></Contents>");
+        }
+        xmlResponse(exchange, "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"><Name>"
+                + xml(bucket) + "</Name><Prefix>" + xml(prefix) + "</Prefix><KeyCount>" + count
+                + "</KeyCount><MaxKeys>" + Math.max(1000, count) + "</MaxKeys><IsTruncated>false</IsTruncated>"
+                + contents + "</ListBucketResult>");
+    }
+
+    private void deleteObjects(HttpExchange exchange, String bucket) throws IOException {
+        String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        StringBuilder deleted = new StringBuilder();
+        Matcher matcher = DELETE_KEY.matcher(request);
+        while (matcher.find()) {
+            String key = unescapeXml(matcher.group(1));
+            objects.remove(bucket + "/" + key);
+            deleted.append("<Deleted><Key>").append(xml(key)).append("</Key></Deleted>");
+        }
+        xmlResponse(exchange, "<DeleteResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">" + deleted
+                + "</DeleteResult>");
+    }
+
+    private static void error(HttpExchange exchange, int status, String code, String message) throws IOException {
+        byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error><Code>" + code + "</Code><Message>"
+                + xml(message) + "</Message></Error>").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static void xmlResponse(HttpExchange exchange, String xml) throws IOException {
+        byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Strips the framing of {@code aws-chunked} uploads ({@code <hex size>[;extensions]\r\n<data>\r\n}, ending with
+     * a zero-sized chunk and optional trailers).
+     */
+    static byte[] decodeAwsChunked(byte[] encoded) throws IOException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(encoded.length);
+        int position = 0;
+        while (position < encoded.length) {
+            int lineEnd = indexOfCrlf(encoded, position);
+            if (lineEnd < 0) {
+                throw new IOException("Truncated aws-chunked body");
+            }
+            String header = new String(encoded, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int extension = header.indexOf(';');
+            int size = Integer.parseInt((extension < 0 ? header : header.substring(0, extension)).trim(), 16);
+            if (size == 0) {
+                break;
+            }
+            position = lineEnd + 2;
+            decoded.write(encoded, position, size);
+            position += size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? parameter : parameter.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private static String md5(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String xml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String unescapeXml(String text) {
+        return text.replace("&quot;", "\"").replace("&gt;", ">").replace("&lt;", "<").replace("&amp;", "&");
+    }
+}
@@ -0,0 +1,48 @@
+package com.bookdb.book.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What one endpoint saw during the measured part of a run: latencies of successful responses in nanoseconds,
+ * failures by status code or exception, and arrivals dropped because {@code load.max-in-flight} was reached.
+ */
+public class EndpointStats {
+
+    private final ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private final LongAdder dropped = new LongAdder();
+
+    void recordSuccess(long latencyNanos) {
+        latencies.recordValue(latencyNanos);
+    }
+
+    void recordError(String kind) {
+        errors.computeIfAbsent(kind, _ -> new LongAdder()).increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    public Histogram latencies() {
+        return latencies.copy();
+    }
+
+    public Map<String, Long> errors() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((kind, count) -> counts.put(kind, count.sum()));
+        return counts;
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+}
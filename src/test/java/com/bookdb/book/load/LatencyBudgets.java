@@ -0,0 +1,68 @@
+package com.bookdb.book.load;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Release gate for a load run, read from a properties file. Keys are {@code <endpoint>.<metric>} or
+ * {@code default.<metric>} for endpoints without their own entry; metrics are {@code p50}, {@code p90},
+ * {@code p99}, {@code p999} and {@code max} in milliseconds and {@code error-rate} as a fraction of arrivals
+ * (errors and drops). Metrics without a budget are not checked. With {@code enforced=false} the budgets are
+ * placeholders: violations are reported, but don't fail the run.
+ */
+public class LatencyBudgets {
+
+    private record Metric(String name, String unit, ToDoubleFunction<LatencyReport.Endpoint> value) {
+    }
+
+    private static final List<Metric> METRICS = List.of(
+            new Metric("p50", " ms", LatencyReport.Endpoint::p50),
+            new Metric("p90", " ms", LatencyReport.Endpoint::p90),
+            new Metric("p99", " ms", LatencyReport.Endpoint::p99),
+            new Metric("p999", " ms", LatencyReport.Endpoint::p999),
+            new Metric("max", " ms", LatencyReport.Endpoint::max),
+            new Metric("error-rate", "", LatencyReport.Endpoint::errorRate));
+
+    private final Properties budgets;
+
+    public LatencyBudgets(Properties budgets) {
+        this.budgets = budgets;
+    }
+
+    public static LatencyBudgets load(Path file) throws IOException {
+        Properties budgets = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            budgets.load(reader);
+        }
+        return new LatencyBudgets(budgets);
+    }
+
+    public boolean enforced() {
+        return Boolean.parseBoolean(budgets.getProperty("enforced", "true").trim());
+    }
+
+    public List<String> check(List<LatencyReport.Endpoint> endpoints) {
+        List<String> violations = new ArrayList<>();
+        for (LatencyReport.Endpoint endpoint : endpoints) {
+            for (Metric metric : METRICS) {
+                String budget = budgets.getProperty(endpoint.name() + "." + metric.name(),
+                        budgets.getProperty("default." + metric.name()));
+                if (budget == null) {
+                    continue;
+                }
+                double value = metric.value().applyAsDouble(endpoint);
+                if (value > Double.parseDouble(budget.trim())) {
+                    violations.add(endpoint.name() + " " + metric.name() + " " + value + metric.unit()
+                            + " exceeds the budget of " + budget.trim() + metric.unit());
+                }
+            }
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,136 @@
+package com.bookdb.book.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report of one load run, written as report.json for comparing runs and report.html for reading. Latencies are in
+ * milliseconds; {@code histogram} is the full HdrHistogram (nanoseconds) in its compressed encoding, Base64, and
+ * can be restored with {@code Histogram.decodeFromCompressedByteBuffer} to compare runs at any percentile.
+ */
+public record LatencyReport(Instant startedAt, Map<String, Object> scenario, List<Endpoint> endpoints,
+                            List<String> budgetViolations) {
+
+    public record Endpoint(String name, long ok, long errors, long dropped, double errorRate, double throughput,
+                           double p50, double p90, double p99, double p999, double max, double mean,
+                           Map<String, Long> errorsByKind, String histogram) {
+    }
+
+    public static LatencyReport of(LoadResult result, LatencyBudgets budgets) {
+        double seconds = result.measured().toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        List<Endpoint> endpoints = new ArrayList<>();
+        result.endpoints().forEach((name, stats) -> {
+            Histogram latencies = stats.latencies();
+            Map<String, Long> errorsByKind = stats.errors();
+            long errors = errorsByKind.values().stream().mapToLong(Long::longValue).sum();
+            long total = latencies.getTotalCount() + errors + stats.dropped();
+            endpoints.add(new Endpoint(name, latencies.getTotalCount(), errors, stats.dropped(),
+                    total == 0 ? 0 : (errors + stats.dropped()) / (double) total,
+                    latencies.getTotalCount() / seconds,
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(90)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()),
+                    millis(latencies.getMean()),
+                    errorsByKind,
+                    encode(latencies)));
+        });
+
+        LoadScenario scenario = result.scenario();
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("rate", scenario.rate());
+        settings.put("duration", scenario.duration().toString());
+        settings.put("warmup", scenario.warmup().toString());
+        settings.put("maxInFlight", scenario.maxInFlight());
+        settings.put("books", scenario.books());
+        settings.put("images", scenario.images());
+        settings.put("imageStorage", scenario.imageStorage());
+        settings.put("mix", scenario.mix());
+        return new LatencyReport(result.startedAt(), settings, endpoints, budgets.check(endpoints));
+    }
+
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("report.json").toFile(), this);
+        Files.writeString(directory.resolve("report.html"), html());
+    }
+
+    private String html() {
+        StringBuilder html = new StringBuilder("""
+                <!DOCTYPE html>
+                <html><head><meta charset="utf-8"><title>Load test report</title>
+                <style>
+                body { font-family: sans-serif; margin: 2em; }
+                table { border-collapse: collapse; }
+                th, td { border: 1px solid #ccc; padding: 4px 8px; text-align: right; }
+                th:first-child, td:first-child { text-align: left; }
+                .failed { color: #b00020; }
+                </style></head><body>
+                """);
+        html.append("<h1>Load test report</h1><p>Started ").append(escape(startedAt.toString())).append("</p><p>");
+        scenario.forEach((key, value) -> html.append(escape(key)).append(": ").append(escape(String.valueOf(value)))
+                .append("<br>"));
+        html.append("</p><table><tr><th>Endpoint</th><th>OK</th><th>Errors</th><th>Dropped</th><th>req/s</th>")
+                .append("<th>p50 ms</th><th>p90 ms</th><th>p99 ms</th><th>p99.9 ms</th><th>max ms</th></tr>");
+        for (Endpoint endpoint : endpoints) {
+            html.append("<tr><td>").append(escape(endpoint.name())).append("</td><td>").append(endpoint.ok())
+                    .append("</td><td>").append(endpoint.errors() == 0 ? "0" : endpoint.errors() + " "
+                            + escape(endpoint.errorsByKind().toString()))
+                    .append("</td><td>").append(endpoint.dropped())
+                    .append("</td><td>").append(format(endpoint.throughput()))
+                    .append("</td><td>").append(format(endpoint.p50()))
+                    .append("</td><td>").append(format(endpoint.p90()))
+                    .append("</td><td>").append(format(endpoint.p99()))
+                    .append("</td><td>").append(format(endpoint.p999()))
+                    .append("</td><td>").append(format(endpoint.max())).append("</td></tr>");
+        }
+        html.append("</table>");
+        if (budgetViolations.isEmpty()) {
+            html.append("<p>All latency budgets met.</p>");
+        } else {
+            html.append("<h2 class=\"failed\">Budget violations</h2><ul>");
+            budgetViolations.forEach(violation -> html.append("<li>").append(escape(violation)).append("</li>"));
+            html.append("</ul>");
+        }
+        return html.append("</body></html>\n").toString();
+    }
+
+    private static double millis(double nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,114 @@
+package com.bookdb.book.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests arrive at a fixed rate whether or not earlier ones have completed, the way independent
+ * clients behave. Latency is measured from the moment a request was scheduled, not from when it was actually sent,
+ * so a stalled server shows up in the percentiles instead of silently lowering the request rate (coordinated
+ * omission). During the warmup the rate ramps up linearly from zero, so a cold JVM is not buried under a backlog
+ * it built up while compiling; those arrivals are sent but not recorded.
+ */
+public class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+
+    private final long seed;
+
+    public LoadGenerator(HttpClient client, long seed) {
+        this.client = client;
+        this.seed = seed;
+    }
+
+    public LoadResult run(LoadScenario scenario, List<LoadOperation> operations) throws InterruptedException {
+        Map<String, EndpointStats> endpoints = new LinkedHashMap<>();
+        int[] cumulativeWeights = new int[operations.size()];
+        int totalWeight = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            endpoints.put(operations.get(i).name(), new EndpointStats());
+            totalWeight += operations.get(i).weight();
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        Semaphore inFlight = new Semaphore(scenario.maxInFlight());
+        double ratePerNano = scenario.rate() / (double) TimeUnit.SECONDS.toNanos(1);
+        long warmupNanos = scenario.warmup().toNanos();
+        double warmupArrivals = ratePerNano * warmupNanos / 2;
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + scenario.duration().toNanos();
+
+        for (long arrival = 0; ; arrival++) {
+            // Arrivals so far are rate * t^2 / (2 * warmup) while ramping up, then grow by rate * t.
+            long scheduled = arrival < warmupArrivals
+                    ? start + (long) Math.sqrt(2 * warmupNanos * arrival / ratePerNano)
+                    : measureFrom + (long) ((arrival - warmupArrivals) / ratePerNano);
+            if (scheduled >= end) {
+                break;
+            }
+            for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+
+            LoadOperation operation = pick(operations, cumulativeWeights, random.nextInt(totalWeight));
+            EndpointStats stats = scheduled >= measureFrom ? endpoints.get(operation.name()) : null;
+            if (!inFlight.tryAcquire()) {
+                if (stats != null) {
+                    stats.recordDropped();
+                }
+                continue;
+            }
+
+            HttpRequest request = HttpRequest.newBuilder(operation.request().apply(random), (_, _) -> true)
+                    .timeout(REQUEST_TIMEOUT)
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long latency = System.nanoTime() - scheduled;
+                inFlight.release();
+                if (stats == null) {
+                    return;
+                }
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    stats.recordError(cause.getClass().getSimpleName());
+                } else if (response.statusCode() >= 400) {
+                    stats.recordError(Integer.toString(response.statusCode()));
+                } else {
+                    stats.recordSuccess(latency);
+                }
+            });
+        }
+
+        // Let the last arrivals finish, they belong to the measured window.
+        if (!inFlight.tryAcquire(scenario.maxInFlight(), REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Requests still in flight after the request timeout");
+        }
+        return new LoadResult(scenario, startedAt, scenario.duration(), endpoints);
+    }
+
+    private static LoadOperation pick(List<LoadOperation> operations, int[] cumulativeWeights, int value) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations.get(i);
+            }
+        }
+        throw new IllegalStateException("Weight " + value + " outside of the mix");
+    }
+}
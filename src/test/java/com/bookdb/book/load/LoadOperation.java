@@ -0,0 +1,12 @@
+package com.bookdb.book.load;
+
+import java.net.http.HttpRequest;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * One endpoint of the mix: {@code weight} is its share of the arrivals, {@code request} builds the next request
+ * to it.
+ */
+public record LoadOperation(String name, int weight, Function<RandomGenerator, HttpRequest> request) {
+}
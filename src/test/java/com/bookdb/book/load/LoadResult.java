@@ -0,0 +1,13 @@
+package com.bookdb.book.load;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Outcome of {@link LoadGenerator#run}: per-endpoint statistics of the measured window, keyed by endpoint name in
+ * mix order.
+ */
+public record LoadResult(LoadScenario scenario, Instant startedAt, Duration measured,
+                         Map<String, EndpointStats> endpoints) {
+}
@@ -0,0 +1,59 @@
+package com.bookdb.book.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of a load run, read from {@code -Dload.*} system properties:
+ * <ul>
+ *     <li>{@code load.rate}: requests per second over all endpoints (default 200)</li>
+ *     <li>{@code load.duration} / {@code load.warmup}: measured time and the ramp-up before it, whose latencies are
+ *     discarded, as ISO-8601 or Spring style durations such as {@code 30s} (defaults 60s / 30s)</li>
+ *     <li>{@code load.max-in-flight}: requests outstanding at once; arrivals beyond it count as dropped (default 512)</li>
+ *     <li>{@code load.mix}: {@code endpoint=weight} pairs, e.g. {@code v3.get=5,v4.get=5}; only the listed endpoints
+ *     run (default {@link BookApiWorkload#DEFAULT_MIX})</li>
+ *     <li>{@code load.books} / {@code load.images}: books seeded per API and how many of them get a cover
+ *     (defaults 1000 / 50)</li>
+ *     <li>{@code load.image-storage}: {@code bookdb.image.storage} of the app under test (default bytea)</li>
+ *     <li>{@code load.report-dir}: where report.json and report.html go (default target/load-report)</li>
+ *     <li>{@code load.budgets}: latency budget file (default src/test/java/resources/load-budgets.properties)</li>
+ * </ul>
+ */
+public record LoadScenario(int rate, Duration duration, Duration warmup, int maxInFlight, Map<String, Integer> mix,
+                           int books, int images, String imageStorage, Path reportDirectory, Path budgets) {
+
+    public static LoadScenario fromSystemProperties() {
+        String mix = System.getProperty("load.mix");
+        return new LoadScenario(
+                Integer.getInteger("load.rate", 200),
+                DurationStyle.detectAndParse(System.getProperty("load.duration", "60s")),
+                DurationStyle.detectAndParse(System.getProperty("load.warmup", "30s")),
+                Integer.getInteger("load.max-in-flight", 512),
+                mix == null || mix.isBlank() ? BookApiWorkload.DEFAULT_MIX : parseMix(mix),
+                Integer.getInteger("load.books", 1000),
+                Integer.getInteger("load.images", 50),
+                System.getProperty("load.image-storage", "bytea"),
+                Path.of(System.getProperty("load.report-dir", "target/load-report")),
+                Path.of(System.getProperty("load.budgets", "src/test/java/resources/load-budgets.properties")));
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected endpoint=weight in load.mix, got '" + entry + "'");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + parts[0] + " in load.mix");
+            }
+            weights.put(parts[0].trim(), weight);
+        }
+        return weights;
+    }
+}